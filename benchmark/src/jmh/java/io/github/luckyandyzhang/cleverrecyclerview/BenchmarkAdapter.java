@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+
+/**
+ * 绑定只记录位置的Adapter，测出来的就是CleverRecyclerView自身的开销
+ *
+ * @author andy
+ */
+class BenchmarkAdapter extends RecyclerView.Adapter<BenchmarkAdapter.PageViewHolder> {
+    private final int mItemCount;
+
+    BenchmarkAdapter(int itemCount) {
+        mItemCount = itemCount;
+    }
+
+    @Override
+    public PageViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        return new PageViewHolder(new View(parent.getContext()));
+    }
+
+    @Override
+    public void onBindViewHolder(PageViewHolder holder, int position) {
+        holder.mBoundPosition = position;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    static class PageViewHolder extends RecyclerView.ViewHolder {
+        int mBoundPosition;
+
+        PageViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+
+/**
+ * 按照CleverRecyclerView的方式组装好的RecyclerView、CleverRecyclerViewHelper和CleverPagerLayoutManager，
+ * 已经布局并停在中间的一页上，两个方向都可以滚动
+ *
+ * @author andy
+ */
+class BenchmarkPager {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 600;
+
+    final RecyclerView mRecyclerView;
+    final CleverRecyclerViewHelper mHelper;
+    final CleverPagerLayoutManager mLayoutManager;
+
+    /**
+     * @param visibleChildCount 一页显示的数量
+     * @param itemCount         数据的数量
+     * @param adjacentPageCount 两侧padding中各显示的页数，用来增加同时存在的子View数量
+     */
+    BenchmarkPager(int visibleChildCount, int itemCount, int adjacentPageCount) {
+        mRecyclerView = new RecyclerView(new Context());
+        mHelper = new CleverRecyclerViewHelper(mRecyclerView);
+        mLayoutManager = new CleverPagerLayoutManager(mHelper);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(new BenchmarkAdapter(itemCount));
+
+        int padding = WIDTH / (visibleChildCount + 2 * adjacentPageCount) * adjacentPageCount;
+        mRecyclerView.setPadding(padding, 0, padding, 0);
+        mHelper.setVisibleChildCount(visibleChildCount);
+        mRecyclerView.layout(0, 0, WIDTH, HEIGHT);
+        mHelper.updateConfiguration();
+
+        mLayoutManager.scrollToPositionWithOffset(itemCount / 2, 0);
+        mRecyclerView.layout(0, 0, WIDTH, HEIGHT);
+        mHelper.setScrollOffset(mLayoutManager.getScrollOffset());
+    }
+
+    int getFirstChildPosition() {
+        return mLayoutManager.getPosition(mLayoutManager.getChildAt(0));
+    }
+}
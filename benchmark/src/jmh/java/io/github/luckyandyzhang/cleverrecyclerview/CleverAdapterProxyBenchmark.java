@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * CleverRecyclerViewAdapterProxy在绑定时增加的开销，{@link #directBind()}直接绑定被代理的Adapter，作为对照
+ * <p>开启预加载时每次绑定都会计时，循环模式下需要把虚拟位置转换成真实的位置</p>
+ * <p>每次操作依次绑定visibleChildCount个ViewHolder，相当于数据刷新后重新绑定一屏的页面</p>
+ *
+ * @author andy
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CleverAdapterProxyBenchmark {
+    @Param({"false", "true"})
+    public boolean looping;
+
+    @Param({"1", "3", "5"})
+    public int visibleChildCount;
+
+    @Param({"0", "2"})
+    public int offscreenPageLimit;
+
+    @Param({"10", "1000"})
+    public int itemCount;
+
+    private BenchmarkAdapter mAdapter;
+    private CleverRecyclerViewAdapterProxy<BenchmarkAdapter.PageViewHolder> mProxy;
+    private BenchmarkAdapter.PageViewHolder[] mHolders;
+    private int mProxyItemCount;
+    private int mPosition;
+
+    @Setup
+    public void setUp() {
+        CleverPrefetchBudget prefetchBudget = new CleverPrefetchBudget();
+        prefetchBudget.setPageLimit(offscreenPageLimit);
+        mAdapter = new BenchmarkAdapter(itemCount);
+        mProxy = new CleverRecyclerViewAdapterProxy<BenchmarkAdapter.PageViewHolder>(prefetchBudget, mAdapter);
+        mProxy.setLooping(looping);
+        mProxyItemCount = mProxy.getItemCount();
+        RecyclerView recyclerView = new RecyclerView(new Context());
+        mHolders = new BenchmarkAdapter.PageViewHolder[visibleChildCount];
+        for (int i = 0; i < visibleChildCount; i++) {
+            mHolders[i] = mProxy.createViewHolder(recyclerView, 0);
+        }
+    }
+
+    @Benchmark
+    public int directBind() {
+        int boundPosition = 0;
+        for (BenchmarkAdapter.PageViewHolder holder : mHolders) {
+            mPosition = mPosition + 1 < itemCount ? mPosition + 1 : 0;
+            mAdapter.bindViewHolder(holder, mPosition);
+            boundPosition += holder.mBoundPosition;
+        }
+        return boundPosition;
+    }
+
+    @Benchmark
+    public int proxyBind() {
+        int boundPosition = 0;
+        for (BenchmarkAdapter.PageViewHolder holder : mHolders) {
+            mPosition = mPosition + 1 < mProxyItemCount ? mPosition + 1 : 0;
+            mProxy.bindViewHolder(holder, mPosition);
+            boundPosition += holder.mBoundPosition;
+        }
+        return boundPosition;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * 松手时计算吸附目标的开销：根据速度预测翻页数、判断拖动是否超过阀值以及目标位置的越界处理
+ * <p>输入从一组随机的速度和拖动距离中轮流取，避免分支被预测得过于理想</p>
+ *
+ * @author andy
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CleverSnapBenchmark {
+    private static final int SAMPLE_COUNT = 64;
+    private static final int MAX_VELOCITY = 8000;
+
+    @Param({"1", "2", "3"})
+    public int visibleChildCount;
+
+    @Param({"5", "100", "10000"})
+    public int itemCount;
+
+    private CleverRecyclerViewHelper mHelper;
+    private final int[] mVelocities = new int[SAMPLE_COUNT];
+    private final int[] mScrolledDistances = new int[SAMPLE_COUNT];
+    private final int[] mTargetPositions = new int[SAMPLE_COUNT];
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        BenchmarkPager pager = new BenchmarkPager(visibleChildCount, itemCount, 0);
+        mHelper = pager.mHelper;
+        int pageSize = mHelper.getPageSize();
+        Random random = new Random(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            mVelocities[i] = random.nextInt(2 * MAX_VELOCITY + 1) - MAX_VELOCITY;
+            mScrolledDistances[i] = random.nextInt(pageSize + 1) - pageSize / 2;
+            mTargetPositions[i] = random.nextInt(itemCount + 4) - 2;
+        }
+    }
+
+    private int nextIndex() {
+        return mIndex++ & (SAMPLE_COUNT - 1);
+    }
+
+    @Benchmark
+    public int flingCountWithVelocity() {
+        int index = nextIndex();
+        return mHelper.getFlingCountWithVelocity(mVelocities[index], 0, mScrolledDistances[index]);
+    }
+
+    @Benchmark
+    public boolean scrollTriggered() {
+        float distance = mScrolledDistances[nextIndex()];
+        //与松手时的判断一样，四个方向都会检查
+        return mHelper.isLeftScrollTriggered(distance) | mHelper.isRightScrollTriggered(distance)
+                | mHelper.isUpScrollTriggered(distance) | mHelper.isDownScrollTriggered(distance);
+    }
+
+    @Benchmark
+    public int targetPositionSafely() {
+        return mHelper.getTargetPositionSafely(mTargetPositions[nextIndex()], itemCount);
+    }
+}
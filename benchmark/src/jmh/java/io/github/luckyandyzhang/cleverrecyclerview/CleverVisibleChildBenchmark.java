@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * 查找可见子View的开销
+ * <p>子View的数量由visibleChildCount和两侧padding中显示的页数决定，
+ * {@link #linearScan()}是RecyclerView.LayoutManager默认的逐个比较，作为对照</p>
+ *
+ * @author andy
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CleverVisibleChildBenchmark {
+    private static final int SAMPLE_COUNT = 64;
+    private static final int ITEM_COUNT = 1000;
+
+    @Param({"1", "3", "5"})
+    public int visibleChildCount;
+
+    @Param({"0", "1", "2"})
+    public int adjacentPageCount;
+
+    private BenchmarkPager mPager;
+    private final int[] mPositions = new int[SAMPLE_COUNT];
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mPager = new BenchmarkPager(visibleChildCount, ITEM_COUNT, adjacentPageCount);
+        int firstPosition = mPager.getFirstChildPosition();
+        int childCount = mPager.mLayoutManager.getChildCount();
+        Random random = new Random(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            //包括两端各一个不在屏幕上的位置
+            mPositions[i] = firstPosition - 1 + random.nextInt(childCount + 2);
+        }
+    }
+
+    private int nextPosition() {
+        return mPositions[mIndex++ & (SAMPLE_COUNT - 1)];
+    }
+
+    @Benchmark
+    public View findViewByPosition() {
+        return mPager.mLayoutManager.findViewByPosition(nextPosition());
+    }
+
+    @Benchmark
+    public View linearScan() {
+        CleverPagerLayoutManager layoutManager = mPager.mLayoutManager;
+        int position = nextPosition();
+        for (int i = 0, count = layoutManager.getChildCount(); i < count; i++) {
+            View child = layoutManager.getChildAt(i);
+            if (layoutManager.getPosition(child) == position) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public int currentPage() {
+        return mPager.mHelper.getCurrentPage();
+    }
+}
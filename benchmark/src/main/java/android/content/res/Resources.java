@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+
+/**
+ * 基准测试用的替身，屏幕参数固定为1080x1920、xxhdpi
+ *
+ * @author andy
+ */
+public class Resources {
+    private final DisplayMetrics mDisplayMetrics;
+
+    public Resources() {
+        mDisplayMetrics = new DisplayMetrics();
+        mDisplayMetrics.density = 3.0f;
+        mDisplayMetrics.densityDpi = 480;
+        mDisplayMetrics.widthPixels = 1080;
+        mDisplayMetrics.heightPixels = 1920;
+    }
+
+    public DisplayMetrics getDisplayMetrics() {
+        return mDisplayMetrics;
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Interpolator;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * 基准测试用的替身
+ * <p>只保留了Adapter的创建和绑定、LayoutManager对子View的增删和横向平移、以及横向滚动范围的计算，
+ * 这些是被测代码在每个事件中实际经过的路径；基准测试中的Adapter没有观察者，通知都是空操作；Recycler不做缓存，每次都创建并绑定新的ViewHolder，只在准备阶段使用；
+ * 被测路径不会经过的方法和android.jar一样抛出异常</p>
+ *
+ * @author andy
+ */
+public class RecyclerView extends ViewGroup {
+    public static final int NO_POSITION = -1;
+    public static final long NO_ID = -1;
+
+    private final Recycler mRecycler = new Recycler();
+    private final State mState = new State();
+    private Adapter<?> mAdapter;
+    private LayoutManager mLayout;
+
+    public RecyclerView(Context context) {
+        super(context);
+    }
+
+    public void setAdapter(Adapter<?> adapter) {
+        mAdapter = adapter;
+        requestLayout();
+    }
+
+    public Adapter<?> getAdapter() {
+        return mAdapter;
+    }
+
+    public void setLayoutManager(LayoutManager layout) {
+        mLayout = layout;
+        layout.mRecyclerView = this;
+        requestLayout();
+    }
+
+    public LayoutManager getLayoutManager() {
+        return mLayout;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        if (mAdapter == null || mLayout == null) {
+            return;
+        }
+        mState.mItemCount = mAdapter.getItemCount();
+        mLayout.onLayoutChildren(mRecycler, mState);
+    }
+
+    public void offsetChildrenHorizontal(int dx) {
+        for (int i = 0, count = getChildCount(); i < count; i++) {
+            getChildAt(i).offsetLeftAndRight(dx);
+        }
+    }
+
+    @Override
+    protected int computeHorizontalScrollOffset() {
+        return mLayout != null && mLayout.canScrollHorizontally() ? mLayout.computeHorizontalScrollOffset(mState) : 0;
+    }
+
+    @Override
+    protected int computeHorizontalScrollExtent() {
+        return mLayout != null && mLayout.canScrollHorizontally() ? mLayout.computeHorizontalScrollExtent(mState) : 0;
+    }
+
+    @Override
+    protected int computeHorizontalScrollRange() {
+        return mLayout != null && mLayout.canScrollHorizontally() ? mLayout.computeHorizontalScrollRange(mState) : 0;
+    }
+
+    public static class State {
+        int mItemCount;
+
+        public int getItemCount() {
+            return mItemCount;
+        }
+    }
+
+    public final class Recycler {
+        public View getViewForPosition(int position) {
+            ViewHolder holder = createAndBind(mAdapter, position);
+            View itemView = holder.itemView;
+            LayoutParams params;
+            if (itemView.getLayoutParams() instanceof LayoutParams) {
+                params = (LayoutParams) itemView.getLayoutParams();
+            } else {
+                params = mLayout.generateDefaultLayoutParams();
+                itemView.setLayoutParams(params);
+            }
+            params.mViewHolder = holder;
+            return itemView;
+        }
+
+        private <VH extends ViewHolder> VH createAndBind(Adapter<VH> adapter, int position) {
+            VH holder = adapter.createViewHolder(RecyclerView.this, adapter.getItemViewType(position));
+            adapter.bindViewHolder(holder, position);
+            return holder;
+        }
+
+        public void clear() {
+        }
+    }
+
+    public static class LayoutParams extends MarginLayoutParams {
+        ViewHolder mViewHolder;
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public boolean isItemRemoved() {
+            return false;
+        }
+
+        public int getViewLayoutPosition() {
+            return mViewHolder.getLayoutPosition();
+        }
+    }
+
+    public static abstract class ViewHolder {
+        public final View itemView;
+        int mPosition = NO_POSITION;
+        int mItemViewType;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null");
+            }
+            this.itemView = itemView;
+        }
+
+        public final int getLayoutPosition() {
+            return mPosition;
+        }
+
+        public final int getAdapterPosition() {
+            return mPosition;
+        }
+
+        public final int getItemViewType() {
+            return mItemViewType;
+        }
+    }
+
+    public static abstract class AdapterDataObserver {
+        public void onChanged() {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        }
+    }
+
+    public static abstract class Adapter<VH extends ViewHolder> {
+        private boolean mHasStableIds;
+
+        public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
+
+        public abstract void onBindViewHolder(VH holder, int position);
+
+        public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+            onBindViewHolder(holder, position);
+        }
+
+        public final VH createViewHolder(ViewGroup parent, int viewType) {
+            VH holder = onCreateViewHolder(parent, viewType);
+            holder.mItemViewType = viewType;
+            return holder;
+        }
+
+        public final void bindViewHolder(VH holder, int position) {
+            holder.mPosition = position;
+            onBindViewHolder(holder, position, Collections.<Object>emptyList());
+        }
+
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        public void setHasStableIds(boolean hasStableIds) {
+            mHasStableIds = hasStableIds;
+        }
+
+        public final boolean hasStableIds() {
+            return mHasStableIds;
+        }
+
+        public long getItemId(int position) {
+            return NO_ID;
+        }
+
+        public abstract int getItemCount();
+
+        public void onViewRecycled(VH holder) {
+        }
+
+        public boolean onFailedToRecycleView(VH holder) {
+            return false;
+        }
+
+        public void onViewAttachedToWindow(VH holder) {
+        }
+
+        public void onViewDetachedFromWindow(VH holder) {
+        }
+
+        public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        }
+
+        public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        }
+
+        //基准测试中没有注册观察者，通知都是空操作
+        public final boolean hasObservers() {
+            return false;
+        }
+
+        public void registerAdapterDataObserver(AdapterDataObserver observer) {
+        }
+
+        public void unregisterAdapterDataObserver(AdapterDataObserver observer) {
+        }
+
+        public final void notifyDataSetChanged() {
+        }
+
+        public final void notifyItemChanged(int position, Object payload) {
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        }
+
+        public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+        }
+
+        public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        }
+
+        public final void notifyItemMoved(int fromPosition, int toPosition) {
+        }
+    }
+
+    public static abstract class LayoutManager {
+        RecyclerView mRecyclerView;
+
+        public abstract LayoutParams generateDefaultLayoutParams();
+
+        public boolean canScrollHorizontally() {
+            return false;
+        }
+
+        public boolean canScrollVertically() {
+            return false;
+        }
+
+        public void onLayoutChildren(Recycler recycler, State state) {
+        }
+
+        public int scrollHorizontallyBy(int dx, Recycler recycler, State state) {
+            return 0;
+        }
+
+        public int scrollVerticallyBy(int dy, Recycler recycler, State state) {
+            return 0;
+        }
+
+        public void scrollToPosition(int position) {
+        }
+
+        public void smoothScrollToPosition(RecyclerView recyclerView, State state, int position) {
+        }
+
+        public void startSmoothScroll(SmoothScroller smoothScroller) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void requestLayout() {
+            if (mRecyclerView != null) {
+                mRecyclerView.requestLayout();
+            }
+        }
+
+        public int getChildCount() {
+            return mRecyclerView != null ? mRecyclerView.getChildCount() : 0;
+        }
+
+        public View getChildAt(int index) {
+            return mRecyclerView != null ? mRecyclerView.getChildAt(index) : null;
+        }
+
+        public int getPosition(View view) {
+            return ((LayoutParams) view.getLayoutParams()).getViewLayoutPosition();
+        }
+
+        public int getItemCount() {
+            Adapter<?> adapter = mRecyclerView != null ? mRecyclerView.getAdapter() : null;
+            return adapter != null ? adapter.getItemCount() : 0;
+        }
+
+        /**
+         * 与真实的LayoutManager一样逐个比较子View的位置
+         */
+        public View findViewByPosition(int position) {
+            for (int i = 0, count = getChildCount(); i < count; i++) {
+                View child = getChildAt(i);
+                if (getPosition(child) == position) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        public void addView(View child) {
+            addView(child, -1);
+        }
+
+        public void addView(View child, int index) {
+            mRecyclerView.addView(child, index);
+        }
+
+        public void removeAndRecycleViewAt(int index, Recycler recycler) {
+            mRecyclerView.removeViewAt(index);
+        }
+
+        public void removeAndRecycleAllViews(Recycler recycler) {
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                removeAndRecycleViewAt(i, recycler);
+            }
+        }
+
+        public void detachAndScrapAttachedViews(Recycler recycler) {
+            mRecyclerView.removeAllViews();
+        }
+
+        public void calculateItemDecorationsForChild(View child, Rect outRect) {
+            outRect.set(0, 0, 0, 0);
+        }
+
+        /**
+         * 被测代码只在不滚动的方向上使用
+         */
+        public static int getChildMeasureSpec(int parentSize, int padding, int childDimension, boolean canScroll) {
+            if (childDimension >= 0) {
+                return MeasureSpec.makeMeasureSpec(childDimension, MeasureSpec.EXACTLY);
+            }
+            return MeasureSpec.makeMeasureSpec(Math.max(0, parentSize - padding),
+                    childDimension == ViewGroup.LayoutParams.MATCH_PARENT ? MeasureSpec.EXACTLY : MeasureSpec.AT_MOST);
+        }
+
+        public void layoutDecorated(View child, int left, int top, int right, int bottom) {
+            child.layout(left, top, right, bottom);
+        }
+
+        public int getDecoratedMeasuredWidth(View child) {
+            return child.getMeasuredWidth();
+        }
+
+        public int getDecoratedMeasuredHeight(View child) {
+            return child.getMeasuredHeight();
+        }
+
+        public int getDecoratedLeft(View child) {
+            return child.getLeft();
+        }
+
+        public int getDecoratedTop(View child) {
+            return child.getTop();
+        }
+
+        public void offsetChildrenHorizontal(int dx) {
+            if (mRecyclerView != null) {
+                mRecyclerView.offsetChildrenHorizontal(dx);
+            }
+        }
+
+        public void offsetChildrenVertical(int dy) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getWidth() {
+            return mRecyclerView != null ? mRecyclerView.getWidth() : 0;
+        }
+
+        public int getHeight() {
+            return mRecyclerView != null ? mRecyclerView.getHeight() : 0;
+        }
+
+        public int getPaddingLeft() {
+            return mRecyclerView != null ? mRecyclerView.getPaddingLeft() : 0;
+        }
+
+        public int getPaddingTop() {
+            return mRecyclerView != null ? mRecyclerView.getPaddingTop() : 0;
+        }
+
+        public int getPaddingRight() {
+            return mRecyclerView != null ? mRecyclerView.getPaddingRight() : 0;
+        }
+
+        public int getPaddingBottom() {
+            return mRecyclerView != null ? mRecyclerView.getPaddingBottom() : 0;
+        }
+
+        public int computeHorizontalScrollOffset(State state) {
+            return 0;
+        }
+
+        public int computeHorizontalScrollExtent(State state) {
+            return 0;
+        }
+
+        public int computeHorizontalScrollRange(State state) {
+            return 0;
+        }
+
+        public int computeVerticalScrollOffset(State state) {
+            return 0;
+        }
+
+        public int computeVerticalScrollExtent(State state) {
+            return 0;
+        }
+
+        public int computeVerticalScrollRange(State state) {
+            return 0;
+        }
+
+        public void onDetachedFromWindow(RecyclerView view, Recycler recycler) {
+        }
+    }
+
+    public static abstract class SmoothScroller {
+        protected abstract void onStart();
+
+        protected abstract void onStop();
+
+        protected abstract void onSeekTargetStep(int dx, int dy, State state, Action action);
+
+        protected abstract void onTargetFound(View targetView, State state, Action action);
+
+        public void setTargetPosition(int targetPosition) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getTargetPosition() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public LayoutManager getLayoutManager() {
+            throw new RuntimeException("Stub!");
+        }
+
+        protected final void stop() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public static class Action {
+            public Action(int dx, int dy, int duration, Interpolator interpolator) {
+                throw new RuntimeException("Stub!");
+            }
+
+            public void update(int dx, int dy, int duration, Interpolator interpolator) {
+                throw new RuntimeException("Stub!");
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.view;
+
+
+/**
+ * 基准测试用的替身
+ *
+ * @author andy
+ */
+public class ViewConfiguration {
+    private static final float SCROLL_FRICTION = 0.015f;
+
+    public static float getScrollFriction() {
+        return SCROLL_FRICTION;
+    }
+}
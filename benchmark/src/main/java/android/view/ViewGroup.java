@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.view;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+
+
+/**
+ * 基准测试用的替身，子View按照下标顺序保存在列表中
+ *
+ * @author andy
+ */
+public class ViewGroup extends View {
+    private final ArrayList<View> mChildren = new ArrayList<View>();
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public View getChildAt(int index) {
+        if (index < 0 || index >= mChildren.size()) {
+            return null;
+        }
+        return mChildren.get(index);
+    }
+
+    public void addView(View child, int index) {
+        if (index < 0) {
+            mChildren.add(child);
+        } else {
+            mChildren.add(index, child);
+        }
+    }
+
+    public void removeViewAt(int index) {
+        mChildren.remove(index);
+    }
+
+    public void removeAllViews() {
+        mChildren.clear();
+    }
+
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+        public int leftMargin;
+        public int topMargin;
+        public int rightMargin;
+        public int bottomMargin;
+
+        public MarginLayoutParams(int width, int height) {
+            super(width, height);
+        }
+    }
+}
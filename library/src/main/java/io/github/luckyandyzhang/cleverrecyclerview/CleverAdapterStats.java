@@ -0,0 +1,256 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+
+import java.util.WeakHashMap;
+
+
+/**
+ * 按ViewType统计Adapter创建和绑定ViewHolder的耗时
+ * <p>通过{@link CleverRecyclerView#getAdapterStatsSnapshot()}获取快照</p>
+ *
+ * @author andy
+ */
+public class CleverAdapterStats {
+    //耗时直方图的区间上限(ms)，最后一个区间没有上限：[0,1) [1,2) [2,4) [4,8) [8,16) [16,∞)
+    private static final int[] HISTOGRAM_BUCKET_UPPER_BOUNDS_MILLIS = {1, 2, 4, 8, 16};
+    public static final int HISTOGRAM_BUCKET_COUNT = HISTOGRAM_BUCKET_UPPER_BOUNDS_MILLIS.length + 1;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    //刚创建还没有绑定过
+    private static final int NOT_BOUND = Integer.MIN_VALUE;
+
+    private final SparseArray<ViewTypeStats> mViewTypeStats;
+    //每个ViewHolder上一次绑定的位置，回收到缓存池之后为RecyclerView.NO_POSITION，用来区分新创建的、原地重新绑定的和复用的ViewHolder
+    private final WeakHashMap<RecyclerView.ViewHolder, Integer> mBoundPositions;
+
+    CleverAdapterStats() {
+        mViewTypeStats = new SparseArray<ViewTypeStats>();
+        mBoundPositions = new WeakHashMap<RecyclerView.ViewHolder, Integer>();
+    }
+
+    /**
+     * 获取耗时直方图某个区间的上限
+     *
+     * @param index [0, HISTOGRAM_BUCKET_COUNT)
+     * @return 上限(ms)，最后一个区间没有上限，返回Integer.MAX_VALUE
+     */
+    public static int getHistogramBucketUpperBoundMillis(int index) {
+        return index < HISTOGRAM_BUCKET_UPPER_BOUNDS_MILLIS.length ? HISTOGRAM_BUCKET_UPPER_BOUNDS_MILLIS[index] : Integer.MAX_VALUE;
+    }
+
+    void onCreateViewHolder(RecyclerView.ViewHolder holder, int viewType, long createNanos) {
+        ViewTypeStats stats = obtainViewTypeStats(viewType);
+        stats.mCreateCount++;
+        stats.mCreateTimeNanos += createNanos;
+        stats.mMaxCreateNanos = Math.max(stats.mMaxCreateNanos, createNanos);
+        stats.mCreateHistogram[getBucket(createNanos)]++;
+        mBoundPositions.put(holder, NOT_BOUND);
+    }
+
+    void onBindViewHolder(RecyclerView.ViewHolder holder, int position, long bindNanos, boolean partial) {
+        ViewTypeStats stats = obtainViewTypeStats(holder.getItemViewType());
+        stats.mBindCount++;
+        stats.mBindTimeNanos += bindNanos;
+        stats.mMaxBindNanos = Math.max(stats.mMaxBindNanos, bindNanos);
+        stats.mBindHistogram[getBucket(bindNanos)]++;
+        Integer lastPosition = mBoundPositions.put(holder, position);
+        if (partial) {
+            stats.mPartialBindCount++;
+        } else if (lastPosition == null || (lastPosition != NOT_BOUND && lastPosition != position)) {
+            //没有记录的是从共享缓存池中取到的其他RecyclerView创建的ViewHolder
+            stats.mReuseCount++;
+        }
+    }
+
+    void onViewRecycled(RecyclerView.ViewHolder holder) {
+        if (mBoundPositions.containsKey(holder)) {
+            mBoundPositions.put(holder, RecyclerView.NO_POSITION);
+        }
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        mViewTypeStats.clear();
+        mBoundPositions.clear();
+    }
+
+    /**
+     * 复制一份当前的统计数据
+     *
+     * @return 快照
+     */
+    CleverAdapterStats snapshot() {
+        CleverAdapterStats snapshot = new CleverAdapterStats();
+        for (int i = 0, size = mViewTypeStats.size(); i < size; i++) {
+            snapshot.mViewTypeStats.put(mViewTypeStats.keyAt(i), new ViewTypeStats(mViewTypeStats.valueAt(i)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return 统计到的ViewType的数量
+     */
+    public int getViewTypeCount() {
+        return mViewTypeStats.size();
+    }
+
+    /**
+     * @param index [0, getViewTypeCount())
+     * @return 指定索引的ViewType的统计数据
+     */
+    public ViewTypeStats getViewTypeStatsAt(int index) {
+        return mViewTypeStats.valueAt(index);
+    }
+
+    /**
+     * @param viewType 目标ViewType
+     * @return 指定ViewType的统计数据，没有数据时返回null
+     */
+    public ViewTypeStats getViewTypeStats(int viewType) {
+        return mViewTypeStats.get(viewType);
+    }
+
+    private ViewTypeStats obtainViewTypeStats(int viewType) {
+        ViewTypeStats stats = mViewTypeStats.get(viewType);
+        if (stats == null) {
+            stats = new ViewTypeStats(viewType);
+            mViewTypeStats.put(viewType, stats);
+        }
+        return stats;
+    }
+
+    private static int getBucket(long nanos) {
+        for (int i = 0; i < HISTOGRAM_BUCKET_UPPER_BOUNDS_MILLIS.length; i++) {
+            if (nanos < HISTOGRAM_BUCKET_UPPER_BOUNDS_MILLIS[i] * NANOS_PER_MILLI) {
+                return i;
+            }
+        }
+        return HISTOGRAM_BUCKET_COUNT - 1;
+    }
+
+    /**
+     * 单个ViewType的统计数据
+     */
+    public static class ViewTypeStats {
+        private final int mViewType;
+        private int mCreateCount;
+        private long mCreateTimeNanos;
+        private long mMaxCreateNanos;
+        private int mBindCount;
+        private int mPartialBindCount;
+        private int mReuseCount;
+        private long mBindTimeNanos;
+        private long mMaxBindNanos;
+        private final int[] mCreateHistogram;
+        private final int[] mBindHistogram;
+
+        ViewTypeStats(int viewType) {
+            mViewType = viewType;
+            mCreateHistogram = new int[HISTOGRAM_BUCKET_COUNT];
+            mBindHistogram = new int[HISTOGRAM_BUCKET_COUNT];
+        }
+
+        ViewTypeStats(ViewTypeStats source) {
+            mViewType = source.mViewType;
+            mCreateCount = source.mCreateCount;
+            mCreateTimeNanos = source.mCreateTimeNanos;
+            mMaxCreateNanos = source.mMaxCreateNanos;
+            mBindCount = source.mBindCount;
+            mPartialBindCount = source.mPartialBindCount;
+            mReuseCount = source.mReuseCount;
+            mBindTimeNanos = source.mBindTimeNanos;
+            mMaxBindNanos = source.mMaxBindNanos;
+            mCreateHistogram = source.mCreateHistogram.clone();
+            mBindHistogram = source.mBindHistogram.clone();
+        }
+
+        public int getViewType() {
+            return mViewType;
+        }
+
+        /**
+         * @return onCreateViewHolder的调用次数，即缓存池没有可用ViewHolder的次数
+         */
+        public int getCreateCount() {
+            return mCreateCount;
+        }
+
+        public long getCreateTimeNanos() {
+            return mCreateTimeNanos;
+        }
+
+        public long getMaxCreateNanos() {
+            return mMaxCreateNanos;
+        }
+
+        /**
+         * @return onBindViewHolder的调用次数
+         */
+        public int getBindCount() {
+            return mBindCount;
+        }
+
+        /**
+         * @return 带有payload的局部刷新次数，已经包含在{@link #getBindCount()}中
+         */
+        public int getPartialBindCount() {
+            return mPartialBindCount;
+        }
+
+        /**
+         * @return 从缓存池或者缓存中取出的ViewHolder绑定到另一个位置的次数，同一个ViewHolder在原位置重新绑定不算复用
+         */
+        public int getReuseCount() {
+            return mReuseCount;
+        }
+
+        public long getBindTimeNanos() {
+            return mBindTimeNanos;
+        }
+
+        public long getMaxBindNanos() {
+            return mMaxBindNanos;
+        }
+
+        /**
+         * @return 缓存池未命中率 = 创建次数 / (创建次数 + 复用次数)
+         */
+        public float getPoolMissRate() {
+            int total = mCreateCount + mReuseCount;
+            return total == 0 ? 0f : (float) mCreateCount / total;
+        }
+
+        /**
+         * @return 创建耗时的直方图，区间见{@link #getHistogramBucketUpperBoundMillis(int)}
+         */
+        public int[] getCreateHistogram() {
+            return mCreateHistogram.clone();
+        }
+
+        /**
+         * @return 绑定耗时的直方图，区间见{@link #getHistogramBucketUpperBoundMillis(int)}
+         */
+        public int[] getBindHistogram() {
+            return mBindHistogram.clone();
+        }
+    }
+}
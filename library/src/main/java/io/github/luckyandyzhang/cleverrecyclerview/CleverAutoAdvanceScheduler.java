@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * 所有自动翻页的CleverRecyclerView共用的定时器
+ * <p>整个进程只有一个Handler定时，每次只在最早到期的时间唤醒，唤醒后在下一帧统一翻页，
+ * 相差不超过{@value #BATCH_WINDOW_MILLIS}ms的CleverRecyclerView会在同一帧翻页，之后它们的周期就对齐了</p>
+ * <p>只在主线程中使用，从窗口上移除的CleverRecyclerView会被注销，不会再唤醒</p>
+ *
+ * @author andy
+ */
+class CleverAutoAdvanceScheduler implements Runnable, Choreographer.FrameCallback {
+    private static final long BATCH_WINDOW_MILLIS = 250;
+
+    private static CleverAutoAdvanceScheduler sInstance;
+
+    private final Handler mHandler;
+    //value: {翻页间隔, 下一次到期的时间}
+    private final WeakHashMap<CleverRecyclerView, long[]> mEntries;
+    private final ArrayList<CleverRecyclerView> mDueRecyclerViews;
+    private long mScheduledTime;
+    private boolean mFrameCallbackPosted;
+
+    private CleverAutoAdvanceScheduler() {
+        mHandler = new Handler(Looper.getMainLooper());
+        mEntries = new WeakHashMap<CleverRecyclerView, long[]>();
+        mDueRecyclerViews = new ArrayList<CleverRecyclerView>();
+    }
+
+    public static CleverAutoAdvanceScheduler getInstance() {
+        if (sInstance == null) {
+            sInstance = new CleverAutoAdvanceScheduler();
+        }
+        return sInstance;
+    }
+
+    /**
+     * 注册自动翻页，从现在开始计时
+     *
+     * @param recyclerView   目标CleverRecyclerView
+     * @param intervalMillis 翻页间隔
+     */
+    public void register(CleverRecyclerView recyclerView, long intervalMillis) {
+        mEntries.put(recyclerView, new long[]{intervalMillis, SystemClock.uptimeMillis() + intervalMillis});
+        reschedule();
+    }
+
+    public void unregister(CleverRecyclerView recyclerView) {
+        if (mEntries.remove(recyclerView) != null) {
+            reschedule();
+        }
+    }
+
+    /**
+     * 重新开始计时，用于松手、停止滚动或者重新可见之后
+     *
+     * @param recyclerView 目标CleverRecyclerView
+     */
+    public void restart(CleverRecyclerView recyclerView) {
+        long[] entry = mEntries.get(recyclerView);
+        if (entry != null) {
+            entry[1] = SystemClock.uptimeMillis() + entry[0];
+            reschedule();
+        }
+    }
+
+    @Override
+    public void run() {
+        mScheduledTime = 0;
+        if (!mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFrameCallbackPosted = false;
+        long now = SystemClock.uptimeMillis();
+        for (Map.Entry<CleverRecyclerView, long[]> entry : mEntries.entrySet()) {
+            long[] value = entry.getValue();
+            if (value[1] <= now + BATCH_WINDOW_MILLIS) {
+                value[1] = now + value[0];
+                mDueRecyclerViews.add(entry.getKey());
+            }
+        }
+        for (int i = 0, size = mDueRecyclerViews.size(); i < size; i++) {
+            CleverRecyclerView recyclerView = mDueRecyclerViews.get(i);
+            if (recyclerView != null && recyclerView.canAutoAdvance()) {
+                recyclerView.autoAdvance();
+            }
+        }
+        mDueRecyclerViews.clear();
+        reschedule();
+    }
+
+    private void reschedule() {
+        long nextTime = Long.MAX_VALUE;
+        for (long[] value : mEntries.values()) {
+            nextTime = Math.min(nextTime, value[1]);
+        }
+        if (nextTime == Long.MAX_VALUE) {
+            mHandler.removeCallbacks(this);
+            mScheduledTime = 0;
+            return;
+        }
+        if (nextTime != mScheduledTime && !mFrameCallbackPosted) {
+            mHandler.removeCallbacks(this);
+            mHandler.postAtTime(this, nextTime);
+            mScheduledTime = nextTime;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.util.DisplayMetrics;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+
+
+/**
+ * 滚动过程中把页面提升为硬件层，页面内容不变时每一帧只需要合成，不需要重新绘制
+ * <p>只提升由自己开启的层，离当前页越近越优先，超过尺寸上限的页面不会被提升，同时存在的层数也有上限</p>
+ *
+ * @author andy
+ */
+class CleverLayerPromoter {
+    private static final int DEFAULT_MAX_LAYER_COUNT = 3;
+
+    private final ViewGroup mParent;
+    private final ArrayList<View> mPromotedViews;
+    private final long mMaxLayerArea;
+    private int mMaxLayerCount;
+
+    public CleverLayerPromoter(ViewGroup parent) {
+        mParent = parent;
+        mPromotedViews = new ArrayList<View>(DEFAULT_MAX_LAYER_COUNT);
+        //单个层不超过一屏的大小
+        DisplayMetrics displayMetrics = parent.getResources().getDisplayMetrics();
+        mMaxLayerArea = (long) displayMetrics.widthPixels * displayMetrics.heightPixels;
+        mMaxLayerCount = DEFAULT_MAX_LAYER_COUNT;
+    }
+
+    /**
+     * 设置同时存在的硬件层的最大数量
+     *
+     * @param maxLayerCount 默认：3
+     */
+    public void setMaxLayerCount(int maxLayerCount) {
+        if (maxLayerCount < 0) {
+            return;
+        }
+        mMaxLayerCount = maxLayerCount;
+        while (mPromotedViews.size() > maxLayerCount) {
+            demote(mPromotedViews.get(mPromotedViews.size() - 1));
+        }
+    }
+
+    /**
+     * 开始拖动或者fling时调用，按照离父View中心的距离从近到远提升子View
+     */
+    public void promote() {
+        if (!mParent.isHardwareAccelerated()) {
+            return;
+        }
+        int center = mParent.getWidth() / 2;
+        int middle = mParent.getHeight() / 2;
+        while (mPromotedViews.size() < mMaxLayerCount) {
+            View candidate = null;
+            long candidateDistance = Long.MAX_VALUE;
+            for (int i = 0, count = mParent.getChildCount(); i < count; i++) {
+                View child = mParent.getChildAt(i);
+                if (!isPromotable(child)) {
+                    continue;
+                }
+                long distance = Math.abs((child.getLeft() + child.getRight()) / 2 - center)
+                        + Math.abs((child.getTop() + child.getBottom()) / 2 - middle);
+                if (distance < candidateDistance) {
+                    candidate = child;
+                    candidateDistance = distance;
+                }
+            }
+            if (candidate == null) {
+                return;
+            }
+            candidate.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            mPromotedViews.add(candidate);
+        }
+    }
+
+    private boolean isPromotable(View child) {
+        return child.getLayerType() == View.LAYER_TYPE_NONE
+                && child.getWidth() > 0 && child.getHeight() > 0
+                && (long) child.getWidth() * child.getHeight() <= mMaxLayerArea;
+    }
+
+    /**
+     * 停止滚动时调用，释放所有的硬件层
+     */
+    public void demoteAll() {
+        for (int i = mPromotedViews.size() - 1; i >= 0; i--) {
+            mPromotedViews.get(i).setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+        mPromotedViews.clear();
+    }
+
+    /**
+     * 子View被移除时调用，避免被回收的View继续持有硬件层
+     *
+     * @param child 被移除的子View
+     */
+    public void demote(View child) {
+        if (mPromotedViews.remove(child)) {
+            child.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+    }
+}
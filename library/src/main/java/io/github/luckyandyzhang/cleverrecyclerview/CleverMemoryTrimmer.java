@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.WeakHashMap;
+
+
+/**
+ * 监听系统的内存压力，逐步释放所有已注册的CleverRecyclerView的缓存
+ * <p>释放的顺序：预加载的页 -> 子View缓存 -> 不在屏幕上的CleverRecyclerView的RecycledViewPool，
+ * 被共享的RecycledViewPool只有在所有使用它的CleverRecyclerView都不在屏幕上时才会被清空</p>
+ * <p>释放之后不会立即恢复，每个CleverRecyclerView在下一次被拖动时再恢复原来的缓存大小</p>
+ *
+ * @author andy
+ */
+class CleverMemoryTrimmer implements ComponentCallbacks2 {
+    public static final int TRIM_STEP_NONE = 0;
+    public static final int TRIM_STEP_PREFETCH = 1;
+    public static final int TRIM_STEP_VIEW_CACHE = 2;
+    public static final int TRIM_STEP_RECYCLED_POOL = 3;
+
+    private static CleverMemoryTrimmer sInstance;
+
+    private final WeakHashMap<CleverRecyclerView, Boolean> mRecyclerViews;
+
+    private CleverMemoryTrimmer() {
+        mRecyclerViews = new WeakHashMap<CleverRecyclerView, Boolean>();
+    }
+
+    public static CleverMemoryTrimmer getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new CleverMemoryTrimmer();
+            context.getApplicationContext().registerComponentCallbacks(sInstance);
+        }
+        return sInstance;
+    }
+
+    public void register(CleverRecyclerView recyclerView) {
+        mRecyclerViews.put(recyclerView, Boolean.TRUE);
+    }
+
+    public void unregister(CleverRecyclerView recyclerView) {
+        mRecyclerViews.remove(recyclerView);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        int trimStep;
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            //RUNNING_CRITICAL以及进入后台之后的所有级别
+            trimStep = TRIM_STEP_RECYCLED_POOL;
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            trimStep = TRIM_STEP_VIEW_CACHE;
+        } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            trimStep = TRIM_STEP_PREFETCH;
+        } else {
+            return;
+        }
+        trim(trimStep);
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(TRIM_STEP_RECYCLED_POOL);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private void trim(int trimStep) {
+        if (mRecyclerViews.isEmpty()) {
+            return;
+        }
+        ArrayList<CleverRecyclerView> recyclerViews = new ArrayList<CleverRecyclerView>(mRecyclerViews.keySet());
+        for (int i = 0, size = recyclerViews.size(); i < size; i++) {
+            recyclerViews.get(i).trimMemory(trimStep);
+        }
+        if (trimStep < TRIM_STEP_RECYCLED_POOL) {
+            return;
+        }
+        //还在屏幕上的CleverRecyclerView正在使用的RecycledViewPool需要保留
+        HashSet<RecyclerView.RecycledViewPool> pinnedPools = new HashSet<RecyclerView.RecycledViewPool>();
+        for (int i = 0, size = recyclerViews.size(); i < size; i++) {
+            CleverRecyclerView recyclerView = recyclerViews.get(i);
+            if (isOnScreen(recyclerView)) {
+                pinnedPools.add(recyclerView.getRecycledViewPool());
+            }
+        }
+        for (int i = 0, size = recyclerViews.size(); i < size; i++) {
+            RecyclerView.RecycledViewPool pool = recyclerViews.get(i).getRecycledViewPool();
+            if (!pinnedPools.contains(pool)) {
+                if (pool instanceof CleverRecycledViewPool) {
+                    ((CleverRecycledViewPool) pool).cancelPrewarm();
+                }
+                pool.clear();
+            }
+        }
+    }
+
+    private static boolean isOnScreen(View view) {
+        return view.getWindowToken() != null && view.getWindowVisibility() == View.VISIBLE && view.isShown();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+
+/**
+ * 支持异步差分更新数据的Adapter
+ * <p>通过{@link #submitPages(List)}或{@link CleverRecyclerView#submitPages(List)}替换数据，
+ * 差分在后台线程中计算，结果在主线程中以最少的通知分发，CleverRecyclerView会按照页面的id停留在原来的页面上</p>
+ *
+ * @param <T>  页面数据的类型
+ * @param <VH> ViewHolder的类型
+ * @author andy
+ */
+public abstract class CleverPageAdapter<T, VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+    private final Handler mMainHandler;
+
+    private List<T> mPages;
+    private Executor mExecutor;
+    //每次提交都会递增，用于丢弃过期的差分结果
+    private int mSubmitGeneration;
+    private OnPagesUpdateListener mOnPagesUpdateListener;
+
+    public CleverPageAdapter() {
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mPages = Collections.emptyList();
+        mExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+        setHasStableIds(true);
+    }
+
+    /**
+     * 获取页面的唯一id，用于在数据更新前后识别同一个页面
+     *
+     * @param page 页面数据
+     * @return 页面的id
+     */
+    public abstract long getPageId(T page);
+
+    /**
+     * 判断同一个页面的内容是否发生了变化，内容不同时该页会被重新绑定
+     * <p>在后台线程中调用</p>
+     *
+     * @param oldPage 旧的页面数据
+     * @param newPage 新的页面数据
+     * @return 内容是否相同
+     */
+    public abstract boolean arePageContentsTheSame(T oldPage, T newPage);
+
+    /**
+     * 设置计算差分的Executor
+     *
+     * @param executor 默认：AsyncTask.THREAD_POOL_EXECUTOR
+     */
+    public void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * 替换数据，在后台计算差分后再更新到界面上
+     * <p>在主线程中调用，连续提交时只有最后一次的结果会生效</p>
+     *
+     * @param pages 新的数据，传入null表示清空
+     */
+    public void submitPages(List<T> pages) {
+        final int generation = ++mSubmitGeneration;
+        final List<T> oldPages = mPages;
+        final List<T> newPages = pages != null ? new ArrayList<T>(pages) : Collections.<T>emptyList();
+        if (oldPages.isEmpty() || newPages.isEmpty()) {
+            //其中一方为空时不需要差分
+            applyPages(newPages, null);
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final CleverPageDiff diff = CleverPageDiff.calculate(new CleverPageDiff.Callback() {
+                    @Override
+                    public int getOldSize() {
+                        return oldPages.size();
+                    }
+
+                    @Override
+                    public int getNewSize() {
+                        return newPages.size();
+                    }
+
+                    @Override
+                    public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                        return getPageId(oldPages.get(oldPosition)) == getPageId(newPages.get(newPosition));
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                        return arePageContentsTheSame(oldPages.get(oldPosition), newPages.get(newPosition));
+                    }
+                });
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mSubmitGeneration) {
+                            applyPages(newPages, diff);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyPages(List<T> pages, CleverPageDiff diff) {
+        if (mOnPagesUpdateListener != null) {
+            mOnPagesUpdateListener.onPagesUpdating(diff, pages.size());
+        }
+        mPages = pages;
+        if (diff != null) {
+            diff.dispatchUpdatesTo(this);
+        } else {
+            notifyDataSetChanged();
+        }
+        if (mOnPagesUpdateListener != null) {
+            mOnPagesUpdateListener.onPagesUpdated();
+        }
+    }
+
+    /**
+     * 获取当前的数据
+     *
+     * @return 不可修改的列表
+     */
+    public List<T> getPages() {
+        return Collections.unmodifiableList(mPages);
+    }
+
+    /**
+     * 获取某一页的数据
+     *
+     * @param position 位置
+     * @return 页面数据
+     */
+    public T getPage(int position) {
+        return mPages.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mPages.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getPageId(mPages.get(position));
+    }
+
+    void setOnPagesUpdateListener(OnPagesUpdateListener onPagesUpdateListener) {
+        mOnPagesUpdateListener = onPagesUpdateListener;
+    }
+
+    /**
+     * 数据替换前后的回调，CleverRecyclerView据此维护当前页
+     */
+    interface OnPagesUpdateListener {
+        /**
+         * 数据即将被替换，此时Adapter中还是旧的数据
+         *
+         * @param diff     差分结果，没有差分（整体替换）时为null
+         * @param newCount 新数据的数量
+         */
+        void onPagesUpdating(CleverPageDiff diff, int newCount);
+
+        /**
+         * 数据已经被替换并且通知已经分发
+         */
+        void onPagesUpdated();
+    }
+}
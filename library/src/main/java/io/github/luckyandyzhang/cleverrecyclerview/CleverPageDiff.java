@@ -0,0 +1,269 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+
+/**
+ * 基于Myers差分算法计算两个列表之间的最小增删操作
+ * <p>计算过程只依赖{@link Callback}，可以在后台线程中执行，结果在主线程中分发给Adapter</p>
+ *
+ * @author andy
+ */
+class CleverPageDiff {
+    private static final int TYPE_REMOVE = 0;
+    private static final int TYPE_INSERT = 1;
+    private static final int TYPE_CHANGE = 2;
+
+    //按照从后往前的顺序保存的操作，分发时不需要再调整位置
+    private final ArrayList<int[]> mOperations;
+    //旧列表中每一项在新列表中的位置，被移除的为-1
+    private final int[] mOldToNewPositions;
+
+    private CleverPageDiff(ArrayList<int[]> operations, int[] oldToNewPositions) {
+        mOperations = operations;
+        mOldToNewPositions = oldToNewPositions;
+    }
+
+    /**
+     * 计算差分
+     * <p>使用线性空间的Myers算法：每次只在当前区间中找中间的公共段，再对它两侧的区间继续查找，
+     * 内存只和列表长度成正比，不会随着编辑距离平方增长</p>
+     *
+     * @param callback 提供新旧列表的信息
+     * @return 差分结果
+     */
+    public static CleverPageDiff calculate(Callback callback) {
+        int oldSize = callback.getOldSize();
+        int newSize = callback.getNewSize();
+        //每一个k对应一条对角线，两个方向共用同一组数组
+        int max = (oldSize + newSize + 1) / 2;
+        int[] forward = new int[2 * max + 1];
+        int[] backward = new int[2 * max + 1];
+
+        //找到的公共段，每一项为{旧列表起点, 新列表起点, 长度}
+        ArrayList<int[]> diagonals = new ArrayList<int[]>();
+        //待查找的区间，每一项为{旧列表起点, 旧列表终点, 新列表起点, 新列表终点}
+        ArrayList<int[]> ranges = new ArrayList<int[]>();
+        ranges.add(new int[]{0, oldSize, 0, newSize});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.remove(ranges.size() - 1);
+            int[] snake = findMiddleSnake(callback, range, forward, backward, max);
+            if (snake == null) {
+                continue;
+            }
+            int[] diagonal = toDiagonal(snake);
+            if (diagonal[2] > 0) {
+                diagonals.add(diagonal);
+            }
+            ranges.add(new int[]{range[0], snake[0], range[2], snake[1]});
+            ranges.add(new int[]{snake[2], range[1], snake[3], range[3]});
+        }
+        Collections.sort(diagonals, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] lhs, int[] rhs) {
+                return lhs[0] < rhs[0] ? -1 : (lhs[0] == rhs[0] ? 0 : 1);
+            }
+        });
+
+        //从后往前遍历公共段，公共段之间的部分就是增删操作
+        ArrayList<int[]> operations = new ArrayList<int[]>();
+        int[] oldToNewPositions = new int[oldSize];
+        Arrays.fill(oldToNewPositions, -1);
+        int x = oldSize;
+        int y = newSize;
+        for (int i = diagonals.size() - 1; i >= -1; i--) {
+            int diagonalX = i >= 0 ? diagonals.get(i)[0] : 0;
+            int diagonalY = i >= 0 ? diagonals.get(i)[1] : 0;
+            int size = i >= 0 ? diagonals.get(i)[2] : 0;
+            int endX = diagonalX + size;
+            int endY = diagonalY + size;
+            for (int position = x - 1; position >= endX; position--) {
+                operations.add(new int[]{TYPE_REMOVE, position, 0});
+            }
+            for (int position = y - 1; position >= endY; position--) {
+                operations.add(new int[]{TYPE_INSERT, endX, position});
+            }
+            for (int offset = size - 1; offset >= 0; offset--) {
+                oldToNewPositions[diagonalX + offset] = diagonalY + offset;
+                if (!callback.areContentsTheSame(diagonalX + offset, diagonalY + offset)) {
+                    operations.add(new int[]{TYPE_CHANGE, diagonalX + offset, diagonalY + offset});
+                }
+            }
+            x = diagonalX;
+            y = diagonalY;
+        }
+        return new CleverPageDiff(operations, oldToNewPositions);
+    }
+
+    /**
+     * 从区间两端同时查找，两个方向相遇的位置就是最短编辑路径中间的一段
+     *
+     * @return {起点x, 起点y, 终点x, 终点y, 是否由反向查找得到}，区间有一边为空时返回null
+     */
+    private static int[] findMiddleSnake(Callback callback, int[] range, int[] forward, int[] backward, int max) {
+        int oldLength = range[1] - range[0];
+        int newLength = range[3] - range[2];
+        if (oldLength < 1 || newLength < 1) {
+            return null;
+        }
+        int delta = oldLength - newLength;
+        int half = (oldLength + newLength + 1) / 2;
+        forward[max + 1] = range[0];
+        backward[max + 1] = range[1];
+        for (int d = 0; d < half; d++) {
+            //长度差为奇数时两个方向只会在正向查找中相遇，为偶数时只会在反向查找中相遇
+            for (int k = -d; k <= d; k += 2) {
+                int startX;
+                int x;
+                if (k == -d || (k != d && forward[max + k + 1] > forward[max + k - 1])) {
+                    startX = forward[max + k + 1];
+                    x = startX;
+                } else {
+                    startX = forward[max + k - 1];
+                    x = startX + 1;
+                }
+                int y = range[2] + (x - range[0]) - k;
+                int startY = (d == 0 || x != startX) ? y : y - 1;
+                while (x < range[1] && y < range[3] && callback.areItemsTheSame(x, y)) {
+                    x++;
+                    y++;
+                }
+                forward[max + k] = x;
+                int backwardK = delta - k;
+                if (Math.abs(delta) % 2 == 1 && backwardK >= -d + 1 && backwardK <= d - 1
+                        && backward[max + backwardK] <= x) {
+                    return new int[]{startX, startY, x, y, 0};
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int startX;
+                int x;
+                if (k == -d || (k != d && backward[max + k + 1] < backward[max + k - 1])) {
+                    startX = backward[max + k + 1];
+                    x = startX;
+                } else {
+                    startX = backward[max + k - 1];
+                    x = startX - 1;
+                }
+                int y = range[3] - ((range[1] - x) - k);
+                int startY = (d == 0 || x != startX) ? y : y + 1;
+                while (x > range[0] && y > range[2] && callback.areItemsTheSame(x - 1, y - 1)) {
+                    x--;
+                    y--;
+                }
+                backward[max + k] = x;
+                int forwardK = delta - k;
+                if (delta % 2 == 0 && forwardK >= -d && forwardK <= d && forward[max + forwardK] >= x) {
+                    return new int[]{x, y, startX, startY, 1};
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 去掉中间段开头或结尾的一次增删，只保留其中的公共部分
+     *
+     * @return {旧列表起点, 新列表起点, 长度}
+     */
+    private static int[] toDiagonal(int[] snake) {
+        int width = snake[2] - snake[0];
+        int height = snake[3] - snake[1];
+        int size = Math.min(width, height);
+        if (width == height || snake[4] == 1) {
+            return new int[]{snake[0], snake[1], size};
+        }
+        if (height > width) {
+            return new int[]{snake[0], snake[1] + 1, size};
+        }
+        return new int[]{snake[0] + 1, snake[1], size};
+    }
+
+    /**
+     * 获取旧列表中的某一项在新列表中的位置
+     *
+     * @param oldPosition 旧列表中的位置
+     * @return 新列表中的位置，该项已被移除时返回-1
+     */
+    public int convertOldPositionToNew(int oldPosition) {
+        if (oldPosition < 0 || oldPosition >= mOldToNewPositions.length) {
+            return -1;
+        }
+        return mOldToNewPositions[oldPosition];
+    }
+
+    /**
+     * 将差分结果以最少的通知分发给Adapter，连续的同类操作会被合并
+     *
+     * @param adapter 目标Adapter
+     */
+    public void dispatchUpdatesTo(RecyclerView.Adapter<?> adapter) {
+        int type = -1;
+        int start = 0;
+        int count = 0;
+        for (int i = 0, size = mOperations.size(); i < size; i++) {
+            int[] operation = mOperations.get(i);
+            //操作是从后往前的，所以新操作紧挨在上一段的前面时可以合并
+            if (operation[0] == type && operation[1] == start - (type == TYPE_INSERT ? 0 : 1)) {
+                start = operation[1];
+                count++;
+                continue;
+            }
+            dispatch(adapter, type, start, count);
+            type = operation[0];
+            start = operation[1];
+            count = 1;
+        }
+        dispatch(adapter, type, start, count);
+    }
+
+    private static void dispatch(RecyclerView.Adapter<?> adapter, int type, int start, int count) {
+        if (count == 0) {
+            return;
+        }
+        switch (type) {
+            case TYPE_REMOVE:
+                adapter.notifyItemRangeRemoved(start, count);
+                break;
+            case TYPE_INSERT:
+                adapter.notifyItemRangeInserted(start, count);
+                break;
+            case TYPE_CHANGE:
+                adapter.notifyItemRangeChanged(start, count);
+                break;
+        }
+    }
+
+    /**
+     * 提供差分所需的新旧列表信息
+     */
+    interface Callback {
+        int getOldSize();
+
+        int getNewSize();
+
+        boolean areItemsTheSame(int oldPosition, int newPosition);
+
+        boolean areContentsTheSame(int oldPosition, int newPosition);
+    }
+}
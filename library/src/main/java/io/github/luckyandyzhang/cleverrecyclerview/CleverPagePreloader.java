@@ -0,0 +1,278 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.os.Process;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * 在后台预先加载即将显示的页面所需的数据
+ * <p>通过{@link CleverRecyclerView#setPagePreloader(CleverPagePreloader)}与CleverRecyclerView关联，
+ * 每次目标页发生变化时，按照 目标页 -> 滑动方向上的相邻页 -> 反方向的相邻页 的优先级加载，
+ * 并取消已经不在预加载范围内的任务（例如快速滑动时被跳过的页）</p>
+ * <p>默认的Executor只有一个后台线程，等待中的任务按离目标页的距离排序，目标页变化后重新排序</p>
+ *
+ * @author andy
+ */
+public class CleverPagePreloader {
+    private static final int DEFAULT_PRELOAD_PAGE_COUNT = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static ThreadPoolExecutor sDefaultExecutor;
+
+    private final OnPagePreloadListener mOnPagePreloadListener;
+    private final Handler mMainHandler;
+    private final SparseArray<PreloadTask> mRunningTasks;
+    private final SparseBooleanArray mLoadedPositions;
+
+    private Executor mExecutor;
+    private int mPreloadPageCount;
+    private int[] mPreloadPositions;
+    private int mPreloadPositionCount;
+
+    public CleverPagePreloader(OnPagePreloadListener onPagePreloadListener) {
+        mOnPagePreloadListener = onPagePreloadListener;
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mRunningTasks = new SparseArray<PreloadTask>();
+        mLoadedPositions = new SparseBooleanArray();
+        mExecutor = getDefaultExecutor();
+        setPreloadPageCount(DEFAULT_PRELOAD_PAGE_COUNT);
+    }
+
+    /**
+     * 所有CleverPagePreloader共用的单线程Executor，任务队列按照优先级排序，空闲一段时间后线程会退出
+     */
+    private static synchronized ThreadPoolExecutor getDefaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "CleverPagePreloader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            sDefaultExecutor.allowCoreThreadTimeOut(true);
+        }
+        return sDefaultExecutor;
+    }
+
+    /**
+     * 设置执行加载任务的Executor
+     * <p>任务按照优先级从高到低的顺序提交，是否按优先级执行由Executor决定：
+     * 并行的Executor只保证按提交的顺序开始执行，任务本身实现了Comparable，可以放进PriorityBlockingQueue</p>
+     *
+     * @param executor 默认：单线程、按优先级执行的Executor
+     */
+    public void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * 设置目标页每一侧预加载的页数
+     *
+     * @param preloadPageCount 默认：2
+     */
+    public void setPreloadPageCount(int preloadPageCount) {
+        if (preloadPageCount < 0) {
+            return;
+        }
+        mPreloadPageCount = preloadPageCount;
+        mPreloadPositions = new int[preloadPageCount * 2 + 1];
+    }
+
+    /**
+     * 数据发生变化后调用，之前加载过的页会被重新加载
+     */
+    public void invalidate() {
+        cancelAll();
+        mLoadedPositions.clear();
+    }
+
+    /**
+     * 取消所有正在进行的任务
+     */
+    public void cancelAll() {
+        for (int i = 0, size = mRunningTasks.size(); i < size; i++) {
+            mRunningTasks.valueAt(i).cancel();
+        }
+        mRunningTasks.clear();
+    }
+
+    /**
+     * 目标页发生变化时调用
+     *
+     * @param targetPosition 目标页
+     * @param direction      滑动方向，大于等于0表示往下一页的方向
+     * @param itemCount      页的总数
+     * @param looping        是否循环，循环时越界的位置会被取模
+     */
+    void onTargetPageChanged(int targetPosition, int direction, int itemCount, boolean looping) {
+        if (itemCount <= 0 || targetPosition < 0) {
+            return;
+        }
+        collectPreloadPositions(targetPosition, direction >= 0 ? 1 : -1, itemCount, looping);
+
+        for (int i = mRunningTasks.size() - 1; i >= 0; i--) {
+            if (!isPreloadPosition(mRunningTasks.keyAt(i))) {
+                mRunningTasks.valueAt(i).cancel();
+                mRunningTasks.removeAt(i);
+            }
+        }
+        for (int i = mLoadedPositions.size() - 1; i >= 0; i--) {
+            if (!isPreloadPosition(mLoadedPositions.keyAt(i))) {
+                mLoadedPositions.delete(mLoadedPositions.keyAt(i));
+            }
+        }
+        for (int i = 0; i < mPreloadPositionCount; i++) {
+            int position = mPreloadPositions[i];
+            PreloadTask task = mRunningTasks.get(position);
+            if (task != null) {
+                //还在排队的任务按照新的优先级重新排序
+                if (task.mPriority != i && isPriorityExecutor() && ((ThreadPoolExecutor) mExecutor).remove(task)) {
+                    task.mPriority = i;
+                    mExecutor.execute(task);
+                }
+            } else if (!mLoadedPositions.get(position)) {
+                task = new PreloadTask(position, i);
+                mRunningTasks.put(position, task);
+                mExecutor.execute(task);
+            }
+        }
+    }
+
+    /**
+     * 按照优先级收集需要预加载的位置：目标页，然后依次是滑动方向上和反方向上的相邻页
+     */
+    private void collectPreloadPositions(int targetPosition, int direction, int itemCount, boolean looping) {
+        mPreloadPositionCount = 0;
+        addPreloadPosition(targetPosition, itemCount, looping);
+        for (int distance = 1; distance <= mPreloadPageCount; distance++) {
+            addPreloadPosition(targetPosition + direction * distance, itemCount, looping);
+            addPreloadPosition(targetPosition - direction * distance, itemCount, looping);
+        }
+    }
+
+    private void addPreloadPosition(int position, int itemCount, boolean looping) {
+        if (looping) {
+            position = ((position % itemCount) + itemCount) % itemCount;
+        } else if (position < 0 || position >= itemCount) {
+            return;
+        }
+        if (!isPreloadPosition(position)) {
+            mPreloadPositions[mPreloadPositionCount++] = position;
+        }
+    }
+
+    private boolean isPreloadPosition(int position) {
+        for (int i = 0; i < mPreloadPositionCount; i++) {
+            if (mPreloadPositions[i] == position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPriorityExecutor() {
+        return mExecutor instanceof ThreadPoolExecutor
+                && ((ThreadPoolExecutor) mExecutor).getQueue() instanceof PriorityBlockingQueue;
+    }
+
+    private void onTaskFinished(PreloadTask task) {
+        if (mRunningTasks.get(task.mPosition) == task) {
+            mRunningTasks.remove(task.mPosition);
+            if (!task.mCancellationSignal.isCanceled()) {
+                mLoadedPositions.put(task.mPosition, true);
+            }
+        }
+    }
+
+    private class PreloadTask implements Runnable, Comparable<PreloadTask> {
+        private final int mPosition;
+        private final CancellationSignal mCancellationSignal;
+        //在预加载位置中的顺序，越小越先执行，只在主线程中修改，修改时任务不在队列中
+        private volatile int mPriority;
+
+        PreloadTask(int position, int priority) {
+            mPosition = position;
+            mPriority = priority;
+            mCancellationSignal = new CancellationSignal();
+        }
+
+        void cancel() {
+            mCancellationSignal.cancel();
+            //还在排队的任务直接移出队列，不占用执行的顺序
+            if (mExecutor instanceof ThreadPoolExecutor) {
+                ((ThreadPoolExecutor) mExecutor).remove(this);
+            }
+        }
+
+        @Override
+        public int compareTo(PreloadTask another) {
+            return mPriority < another.mPriority ? -1 : (mPriority == another.mPriority ? 0 : 1);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!mCancellationSignal.isCanceled()) {
+                    mOnPagePreloadListener.onPreloadPage(mPosition, mCancellationSignal);
+                }
+            } catch (OperationCanceledException e) {
+                //任务被取消
+            } finally {
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onTaskFinished(PreloadTask.this);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 预加载的回调
+     */
+    public interface OnPagePreloadListener {
+        /**
+         * 在后台线程中加载指定页的数据
+         *
+         * @param position           页的位置
+         * @param cancellationSignal 该页被跳过时会被取消，耗时的操作应该检查或者监听它
+         */
+        void onPreloadPage(int position, CancellationSignal cancellationSignal);
+    }
+}
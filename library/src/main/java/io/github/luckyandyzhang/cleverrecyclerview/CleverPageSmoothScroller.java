@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+
+/**
+ * 按页吸附的SmoothScroller
+ * <p>页的尺寸是固定的，{@link CleverPagerLayoutManager}可以直接算出到目标位置的滚动距离，一次动画滚动到位，
+ * 不需要像LinearSmoothScroller那样边滚动边查找目标View，也不需要反射</p>
+ * <p>每次滚动都应该创建新的实例，动画过程中不会再分配对象</p>
+ *
+ * @author andy
+ */
+class CleverPageSmoothScroller extends RecyclerView.SmoothScroller {
+    private static final Interpolator DECELERATE_INTERPOLATOR = new DecelerateInterpolator();
+
+    private final int mDuration;
+
+    private boolean mSeekStarted;
+    private int mPlannedDistance;
+    private int mScrolledDistance;
+
+    public CleverPageSmoothScroller(int duration) {
+        mDuration = duration;
+    }
+
+    @Override
+    protected void onStart() {
+        mSeekStarted = false;
+        mPlannedDistance = 0;
+        mScrolledDistance = 0;
+    }
+
+    @Override
+    protected void onStop() {
+        getPagerLayoutManager().cancelPendingJump();
+    }
+
+    @Override
+    protected void onSeekTargetStep(int dx, int dy, RecyclerView.State state, Action action) {
+        boolean horizontal = getLayoutManager().canScrollHorizontally();
+        if (mSeekStarted) {
+            mScrolledDistance += horizontal ? dx : dy;
+            //距离是直接算出来的，在动画结束前目标View就会出现，这里只是兜底
+            if (Math.abs(mScrolledDistance) < Math.abs(mPlannedDistance)) {
+                return;
+            }
+        }
+        int distance = getPagerLayoutManager().computeScrollDistanceToPosition(getTargetPosition());
+        if (distance == 0) {
+            //已经在目标位置上或者超出了滚动范围，交给RecyclerView停止滚动
+            stop();
+            return;
+        }
+        mSeekStarted = true;
+        mPlannedDistance = distance;
+        mScrolledDistance = 0;
+        update(action, distance, mDuration);
+    }
+
+    @Override
+    protected void onTargetFound(View targetView, RecyclerView.State state, Action action) {
+        int distance = getPagerLayoutManager().computeScrollDistanceToPosition(getTargetPosition());
+        if (mSeekStarted) {
+            int remaining = mPlannedDistance - mScrolledDistance;
+            //正在进行的动画恰好停在目标位置上，不需要重新开始动画
+            if (Math.abs(distance - remaining) <= 1) {
+                return;
+            }
+            int duration = Math.max(1, (int) ((long) mDuration * Math.abs(distance) / Math.max(1, Math.abs(mPlannedDistance))));
+            update(action, distance, duration);
+        } else {
+            update(action, distance, mDuration);
+        }
+    }
+
+    private void update(Action action, int distance, int duration) {
+        if (getLayoutManager().canScrollHorizontally()) {
+            action.update(distance, 0, duration, DECELERATE_INTERPOLATOR);
+        } else {
+            action.update(0, distance, duration, DECELERATE_INTERPOLATOR);
+        }
+    }
+
+    private CleverPagerLayoutManager getPagerLayoutManager() {
+        return (CleverPagerLayoutManager) getLayoutManager();
+    }
+}
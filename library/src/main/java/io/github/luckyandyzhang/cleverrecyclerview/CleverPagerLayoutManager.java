@@ -0,0 +1,484 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.graphics.Rect;
+import android.support.v7.widget.OrientationHelper;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+
+/**
+ * 专门用于固定页尺寸的LayoutManager
+ * <p>每一页的尺寸都由{@link CleverRecyclerViewHelper}算出，所以子View的位置、滚动距离以及到目标页的距离都可以直接计算，
+ * 不需要LinearLayoutManager那样的锚点查找和逐个测量。子View使用固定的EXACTLY测量，尺寸不变时不会重复测量</p>
+ * <p>只布局可见的页，以及{@link CleverPrefetchBudget}允许在滚动方向上额外预加载的页</p>
+ *
+ * @author andy
+ */
+class CleverPagerLayoutManager extends RecyclerView.LayoutManager {
+    public static final int HORIZONTAL = OrientationHelper.HORIZONTAL;
+    public static final int VERTICAL = OrientationHelper.VERTICAL;
+
+    private static final int MILLISECONDS_DECELERATION = 280;
+    private static final int DEFAULT_JUMP_THRESHOLD = 5;
+    //跳转时在目标页前面保留的页数，动画只滚动这一段距离
+    private static final int JUMP_LEAD_PAGE_COUNT = 2;
+    //多页滚动时动画时长的上限，相对于单页的倍数
+    private static final int MAX_DURATION_MULTIPLIER = 2;
+
+    private final CleverRecyclerViewHelper mCleverRecyclerViewHelper;
+    private final Rect mDecorInsets = new Rect();
+
+    private int mOrientation = HORIZONTAL;
+    private int mDecelerationDuration = MILLISECONDS_DECELERATION;
+    private boolean mRecycleChildrenOnDetach;
+
+    //第一页的起始位置对齐到padding起点时为0，往下一页方向为正
+    private int mScrollOffset;
+    private int mPendingScrollPosition = RecyclerView.NO_POSITION;
+    private int mPendingScrollOffset;
+    private int mJumpThreshold = DEFAULT_JUMP_THRESHOLD;
+    private boolean mHasPendingJump;
+    private int mPendingJumpOffset;
+
+    private CleverPrefetchBudget mPrefetchBudget;
+    private int mLastScrollDirection;
+
+    //数据变化后当前页下标的变化量，由CleverRecyclerView在每一次变化时累加，在下一次布局时使用
+    private int mPendingAnchorShift;
+    private boolean mHasPendingAnchorShift;
+
+    public CleverPagerLayoutManager(CleverRecyclerViewHelper cleverRecyclerViewHelper) {
+        mCleverRecyclerViewHelper = cleverRecyclerViewHelper;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+    }
+
+    @Override
+    public boolean canScrollHorizontally() {
+        return mOrientation == HORIZONTAL;
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return mOrientation == VERTICAL;
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        int itemCount = state.getItemCount();
+        int anchorShift = mPendingAnchorShift;
+        boolean hasAnchorShift = mHasPendingAnchorShift;
+        mPendingAnchorShift = 0;
+        mHasPendingAnchorShift = false;
+        if (itemCount == 0) {
+            removeAndRecycleAllViews(recycler);
+            mScrollOffset = 0;
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+            return;
+        }
+        int pageSize = getPageSize();
+        if (mHasPendingJump) {
+            mScrollOffset = mPendingJumpOffset;
+            mHasPendingJump = false;
+        } else if (mPendingScrollPosition != RecyclerView.NO_POSITION) {
+            mScrollOffset = Math.min(mPendingScrollPosition, itemCount - 1) * pageSize - mPendingScrollOffset;
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+        } else if (hasAnchorShift) {
+            //数据变化后以CleverRecyclerView维护的当前页为锚点，页内的偏移保持不变
+            mScrollOffset += anchorShift * pageSize;
+        } else {
+            //没有数据变化时以第一个子View为锚点
+            for (int i = 0, count = getChildCount(); i < count; i++) {
+                View child = getChildAt(i);
+                RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child.getLayoutParams();
+                if (!params.isItemRemoved()) {
+                    mScrollOffset = getPosition(child) * pageSize - (getChildStart(child) - getStartAfterPadding());
+                    break;
+                }
+            }
+        }
+        mScrollOffset = Math.max(0, Math.min(mScrollOffset, getMaxScrollOffset(itemCount)));
+        detachAndScrapAttachedViews(recycler);
+        fill(recycler, itemCount);
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        return mOrientation == HORIZONTAL ? scrollBy(dx, recycler, state) : 0;
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        return mOrientation == VERTICAL ? scrollBy(dy, recycler, state) : 0;
+    }
+
+    private int scrollBy(int delta, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        int itemCount = state.getItemCount();
+        if (mHasPendingJump) {
+            //直接跳到目标页附近，中间的页不会被绑定
+            mHasPendingJump = false;
+            mScrollOffset = mPendingJumpOffset;
+            removeAndRecycleAllViews(recycler);
+            fill(recycler, itemCount);
+        }
+        if (getChildCount() == 0 || delta == 0) {
+            return 0;
+        }
+        onScrollFrame(delta);
+        int scrollOffset = Math.max(0, Math.min(mScrollOffset + delta, getMaxScrollOffset(itemCount)));
+        int consumed = scrollOffset - mScrollOffset;
+        if (consumed == 0) {
+            return 0;
+        }
+        mScrollOffset = scrollOffset;
+        if (mOrientation == HORIZONTAL) {
+            offsetChildrenHorizontal(-consumed);
+        } else {
+            offsetChildrenVertical(-consumed);
+        }
+        fill(recycler, itemCount);
+        return consumed;
+    }
+
+    /**
+     * 回收范围外的页，并补齐范围内缺少的页，已经存在的子View只做平移不会重新测量和布局
+     */
+    private void fill(RecyclerView.Recycler recycler, int itemCount) {
+        int pageSize = getPageSize();
+        if (pageSize <= 0) {
+            return;
+        }
+        //预加载的页放在最近一次滚动的方向上
+        int grantedPageCount = mPrefetchBudget != null ? mPrefetchBudget.getGrantedPageCount() : 0;
+        int extraBefore = mLastScrollDirection < 0 ? grantedPageCount * pageSize : 0;
+        int extraAfter = mLastScrollDirection >= 0 ? grantedPageCount * pageSize : 0;
+        //两侧的padding区域也需要显示相邻的页
+        int paddingStart = getStartAfterPadding();
+        int start = mScrollOffset - paddingStart - extraBefore;
+        int end = mScrollOffset - paddingStart + getTotalSize() + extraAfter;
+        int firstPosition = Math.max(0, floorDiv(start, pageSize));
+        int lastPosition = Math.min(itemCount - 1, floorDiv(end - 1, pageSize));
+
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            int position = getPosition(getChildAt(i));
+            if (position < firstPosition || position > lastPosition) {
+                removeAndRecycleViewAt(i, recycler);
+            }
+        }
+        if (getChildCount() == 0) {
+            for (int position = firstPosition; position <= lastPosition; position++) {
+                addPage(recycler, position, -1);
+            }
+            return;
+        }
+        int childFirstPosition = getPosition(getChildAt(0));
+        int childLastPosition = getPosition(getChildAt(getChildCount() - 1));
+        for (int position = childFirstPosition - 1; position >= firstPosition; position--) {
+            addPage(recycler, position, 0);
+        }
+        for (int position = childLastPosition + 1; position <= lastPosition; position++) {
+            addPage(recycler, position, -1);
+        }
+    }
+
+    private void addPage(RecyclerView.Recycler recycler, int position, int index) {
+        View child = recycler.getViewForPosition(position);
+        addView(child, index);
+        measurePage(child);
+        RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child.getLayoutParams();
+        int pageStart = getStartAfterPadding() + position * getPageSize() - mScrollOffset;
+        int left;
+        int top;
+        if (mOrientation == HORIZONTAL) {
+            left = pageStart + params.leftMargin;
+            top = getPaddingTop() + params.topMargin;
+        } else {
+            left = getPaddingLeft() + params.leftMargin;
+            top = pageStart + params.topMargin;
+        }
+        layoutDecorated(child, left, top, left + getDecoratedMeasuredWidth(child), top + getDecoratedMeasuredHeight(child));
+    }
+
+    /**
+     * 两个方向都使用固定的EXACTLY测量子View，和{@link CleverRecyclerViewHelper}计算的页面尺寸保持一致，
+     * 尺寸没有变化并且子View没有请求布局时跳过测量
+     */
+    private void measurePage(View child) {
+        RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child.getLayoutParams();
+        calculateItemDecorationsForChild(child, mDecorInsets);
+        int width = Math.max(0, mCleverRecyclerViewHelper.getPageWidth() - mDecorInsets.left - mDecorInsets.right
+                - params.leftMargin - params.rightMargin);
+        int height = Math.max(0, mCleverRecyclerViewHelper.getPageHeight() - mDecorInsets.top - mDecorInsets.bottom
+                - params.topMargin - params.bottomMargin);
+        int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+        if (!child.isLayoutRequested() && isMeasured(child.getMeasuredWidth(), widthSpec)
+                && isMeasured(child.getMeasuredHeight(), heightSpec)) {
+            return;
+        }
+        child.measure(widthSpec, heightSpec);
+    }
+
+    private static boolean isMeasured(int measuredSize, int measureSpec) {
+        int size = View.MeasureSpec.getSize(measureSpec);
+        switch (View.MeasureSpec.getMode(measureSpec)) {
+            case View.MeasureSpec.EXACTLY:
+                return measuredSize == size;
+            case View.MeasureSpec.AT_MOST:
+                return measuredSize <= size;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public View findViewByPosition(int position) {
+        int childCount = getChildCount();
+        if (childCount == 0) {
+            return null;
+        }
+        //子View按照位置连续排列，可以直接算出下标
+        int index = position - getPosition(getChildAt(0));
+        if (index >= 0 && index < childCount) {
+            View child = getChildAt(index);
+            if (getPosition(child) == position) {
+                return child;
+            }
+        }
+        return super.findViewByPosition(position);
+    }
+
+    @Override
+    public void scrollToPosition(int position) {
+        scrollToPositionWithOffset(position, 0);
+    }
+
+    /**
+     * 无动画地滚动到指定页，下一次布局时直接布局到目标位置
+     *
+     * @param position 目标位置
+     * @param offset   目标页的起始位置相对于padding起点的偏移
+     */
+    public void scrollToPositionWithOffset(int position, int offset) {
+        mHasPendingJump = false;
+        mPendingScrollPosition = position;
+        mPendingScrollOffset = offset;
+        requestLayout();
+    }
+
+    /**
+     * 距离超过阀值时，先无动画地跳到目标页前面{@value #JUMP_LEAD_PAGE_COUNT}页的位置，再用动画滚动剩下的距离，
+     * 动画时长随页数的平方根增长，最多为单页时长的{@value #MAX_DURATION_MULTIPLIER}倍
+     */
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
+        int pageSize = getPageSize();
+        int pageDistance = 0;
+        if (pageSize > 0) {
+            pageDistance = position - floorDiv(mScrollOffset + pageSize / 2, pageSize);
+        }
+        //目标View已经在布局中时，SmoothScroller启动时就会找到它，不能再跳转
+        boolean jump = mJumpThreshold > 0 && Math.abs(pageDistance) > mJumpThreshold
+                && findViewByPosition(position) == null;
+        int animatedPageCount = jump ? JUMP_LEAD_PAGE_COUNT : Math.max(1, Math.abs(pageDistance));
+        int duration = (int) Math.min(mDecelerationDuration * Math.sqrt(animatedPageCount),
+                (double) mDecelerationDuration * MAX_DURATION_MULTIPLIER);
+
+        //每次滚动都使用新的SmoothScroller，避免Action的更新次数在多次滚动之间累加
+        CleverPageSmoothScroller smoothScroller = new CleverPageSmoothScroller(duration);
+        smoothScroller.setTargetPosition(position);
+        //先启动SmoothScroller，上一个SmoothScroller停止时会取消它自己的跳转
+        startSmoothScroll(smoothScroller);
+        if (jump) {
+            int jumpPosition = position - (pageDistance > 0 ? JUMP_LEAD_PAGE_COUNT : -JUMP_LEAD_PAGE_COUNT);
+            mPendingJumpOffset = Math.max(0, Math.min(jumpPosition * pageSize, getMaxScrollOffset(getItemCount())));
+            mHasPendingJump = true;
+        }
+    }
+
+    /**
+     * 数据变化后，当前页的下标移动了多少，下一次布局时滚动距离随之移动，让当前页保持不动
+     *
+     * @param shift 下标的变化量
+     */
+    void offsetAnchorPosition(int shift) {
+        mPendingAnchorShift += shift;
+        mHasPendingAnchorShift = true;
+    }
+
+    /**
+     * SmoothScroller停止时调用，还没有执行的跳转不再需要
+     */
+    void cancelPendingJump() {
+        mHasPendingJump = false;
+    }
+
+    /**
+     * 设置触发跳转的页数
+     *
+     * @param jumpThreshold 默认：5，0表示始终逐页滚动
+     */
+    public void setJumpThreshold(int jumpThreshold) {
+        mJumpThreshold = jumpThreshold;
+    }
+
+    /**
+     * 获取当前的滚动距离
+     *
+     * @return 第一页对齐到padding起点时为0，往下一页方向为正
+     */
+    public int getScrollOffset() {
+        return mScrollOffset;
+    }
+
+    /**
+     * 计算把指定页对齐到padding起点所需的滚动距离，受滚动范围的限制
+     *
+     * @param position 目标位置
+     * @return 滚动距离，往下一页方向为正
+     */
+    public int computeScrollDistanceToPosition(int position) {
+        int targetOffset = Math.max(0, Math.min(position * getPageSize(), getMaxScrollOffset(getItemCount())));
+        //跳转执行之前按实际的滚动距离计算，跳转之后目标View会出现，SmoothScroller再按新的距离修正
+        return targetOffset - mScrollOffset;
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        return mScrollOffset;
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        return getChildCount() == 0 ? 0 : getTotalSpace();
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        return state.getItemCount() * getPageSize();
+    }
+
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        return mScrollOffset;
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        return getChildCount() == 0 ? 0 : getTotalSpace();
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        return state.getItemCount() * getPageSize();
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        if (mRecycleChildrenOnDetach) {
+            removeAndRecycleAllViews(recycler);
+            recycler.clear();
+        }
+    }
+
+    public void setOrientation(int orientation) {
+        if (mOrientation != orientation) {
+            //切换方向后原来的偏移没有意义，停留在当前页上
+            int pageSize = getPageSize();
+            int position = pageSize > 0 ? floorDiv(mScrollOffset + pageSize / 2, pageSize) : 0;
+            mOrientation = orientation;
+            scrollToPositionWithOffset(position, 0);
+        }
+    }
+
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    public void setDecelerationDuration(int decelerationDuration) {
+        mDecelerationDuration = decelerationDuration;
+    }
+
+    public void setPrefetchBudget(CleverPrefetchBudget prefetchBudget) {
+        mPrefetchBudget = prefetchBudget;
+    }
+
+    /**
+     * 从窗口上移除时是否回收所有的子View，共享RecycledViewPool时开启可以让其他RecyclerView复用这些View
+     *
+     * @param recycleChildrenOnDetach 默认：false
+     */
+    public void setRecycleChildrenOnDetach(boolean recycleChildrenOnDetach) {
+        mRecycleChildrenOnDetach = recycleChildrenOnDetach;
+    }
+
+    private void onScrollFrame(int delta) {
+        int direction = delta > 0 ? 1 : -1;
+        if (direction != mLastScrollDirection) {
+            mLastScrollDirection = direction;
+            if (mPrefetchBudget != null) {
+                mPrefetchBudget.resetGrantedPageCount();
+            }
+        }
+        if (mPrefetchBudget != null && mPrefetchBudget.isEnabled()) {
+            mPrefetchBudget.onScrollFrame();
+        }
+    }
+
+    private int getPageSize() {
+        return mCleverRecyclerViewHelper.getPageSize();
+    }
+
+    /**
+     * 最后一页的末端对齐到padding终点时的滚动距离
+     */
+    private int getMaxScrollOffset(int itemCount) {
+        return Math.max(0, itemCount * getPageSize() - getTotalSpace());
+    }
+
+    private int getStartAfterPadding() {
+        return mOrientation == HORIZONTAL ? getPaddingLeft() : getPaddingTop();
+    }
+
+    private int getTotalSpace() {
+        return mOrientation == HORIZONTAL
+                ? getWidth() - getPaddingLeft() - getPaddingRight()
+                : getHeight() - getPaddingTop() - getPaddingBottom();
+    }
+
+    private int getTotalSize() {
+        return mOrientation == HORIZONTAL ? getWidth() : getHeight();
+    }
+
+    private int getChildStart(View child) {
+        RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child.getLayoutParams();
+        return mOrientation == HORIZONTAL
+                ? getDecoratedLeft(child) - params.leftMargin
+                : getDecoratedTop(child) - params.topMargin;
+    }
+
+    private static int floorDiv(int value, int divisor) {
+        return value >= 0 ? value / divisor : (value + 1) / divisor - 1;
+    }
+
+}
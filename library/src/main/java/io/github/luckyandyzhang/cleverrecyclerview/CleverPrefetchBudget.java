@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+
+/**
+ * 预加载相邻页面的预算
+ * <p>根据每一帧的绑定耗时，逐帧增加允许额外布局的页数，保证预加载不会让一帧超时</p>
+ *
+ * @author andy
+ */
+class CleverPrefetchBudget {
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+    //滚动过程中，预加载最多占用一帧一半的时间
+    private static final float SCROLL_FRAME_BUDGET_RATIO = 0.5f;
+
+    private long mFrameIntervalNanos;
+    private long mFrameBindNanos;
+    private long mAverageBindNanos;
+    private int mPageLimit;
+    private int mGrantedPageCount;
+
+    public CleverPrefetchBudget() {
+        mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    public void setFrameIntervalNanos(long frameIntervalNanos) {
+        mFrameIntervalNanos = frameIntervalNanos;
+    }
+
+    /**
+     * 设置每一侧最多预加载的页数
+     *
+     * @param pageLimit 页数，0表示关闭预加载
+     */
+    public void setPageLimit(int pageLimit) {
+        mPageLimit = pageLimit;
+        if (mGrantedPageCount > pageLimit) {
+            mGrantedPageCount = pageLimit;
+        }
+    }
+
+    public int getPageLimit() {
+        return mPageLimit;
+    }
+
+    public boolean isEnabled() {
+        return mPageLimit > 0;
+    }
+
+    /**
+     * 当前允许额外布局的页数
+     *
+     * @return 页数
+     */
+    public int getGrantedPageCount() {
+        return mGrantedPageCount;
+    }
+
+    public boolean isFullyGranted() {
+        return mGrantedPageCount >= mPageLimit;
+    }
+
+    /**
+     * 滚动方向改变时调用，新方向上的预加载需要重新逐帧增加
+     */
+    public void resetGrantedPageCount() {
+        mGrantedPageCount = 0;
+    }
+
+    /**
+     * 记录一次绑定的耗时
+     *
+     * @param bindNanos 耗时(ns)
+     */
+    public void onBind(long bindNanos) {
+        mFrameBindNanos += bindNanos;
+        mAverageBindNanos = mAverageBindNanos == 0 ? bindNanos : (mAverageBindNanos * 7 + bindNanos) / 8;
+    }
+
+    /**
+     * 滚动过程中的每一帧调用一次
+     *
+     * @return 本帧允许额外布局的页数
+     */
+    public int onScrollFrame() {
+        grantIfAffordable((long) (mFrameIntervalNanos * SCROLL_FRAME_BUDGET_RATIO));
+        return mGrantedPageCount;
+    }
+
+    /**
+     * 停止滚动后的每一帧调用一次
+     *
+     * @return 允许额外布局的页数是否增加了
+     */
+    public boolean onIdleFrame() {
+        int grantedPageCount = mGrantedPageCount;
+        grantIfAffordable(mFrameIntervalNanos);
+        return mGrantedPageCount != grantedPageCount;
+    }
+
+    /**
+     * 停止滚动后，为预加载请求的布局完成时调用
+     *
+     * @param layoutNanos 整个布局的耗时(ns)，包括布局过程中的绑定
+     * @return 是否继续预加载下一页，布局超出一帧的时间后不再继续
+     */
+    public boolean onIdleLayout(long layoutNanos) {
+        //绑定发生在布局过程中，已经算在布局的耗时里
+        mFrameBindNanos = 0;
+        return layoutNanos <= mFrameIntervalNanos && !isFullyGranted();
+    }
+
+    private void grantIfAffordable(long budgetNanos) {
+        //上一帧的绑定耗时加上再绑定一页的预计耗时不超过预算时，才多预加载一页
+        if (mGrantedPageCount < mPageLimit && mFrameBindNanos + mAverageBindNanos <= budgetNanos) {
+            mGrantedPageCount++;
+        }
+        mFrameBindNanos = 0;
+    }
+}
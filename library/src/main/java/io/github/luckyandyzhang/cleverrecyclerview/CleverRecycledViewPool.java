@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseBooleanArray;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * 供多个CleverRecyclerView共享的RecycledViewPool
+ * <p>适用于纵向列表中嵌套了多个横向CleverRecyclerView的场景，外层列表滚动时，
+ * 新出现的CleverRecyclerView可以直接复用离开屏幕的CleverRecyclerView的页面，而不需要重新创建</p>
+ * <p>每种ViewType的容量 = 单个CleverRecyclerView最多需要的页数 × 保留的CleverRecyclerView数量，
+ * 单个CleverRecyclerView需要的页数由visibleChildCount和预加载的页数决定</p>
+ *
+ * @author andy
+ */
+public class CleverRecycledViewPool extends RecyclerView.RecycledViewPool {
+    private static final int DEFAULT_RESERVED_CAROUSEL_COUNT = 2;
+
+    private final WeakHashMap<CleverRecyclerView, Integer> mPageDemands;
+    private final SparseBooleanArray mKnownViewTypes;
+    private final ArrayList<PrewarmRequest> mPrewarmRequests;
+    private int mReservedCarouselCount;
+    private int mCapacity;
+
+    //在主线程空闲时每次创建一个ViewHolder，避免一次性创建太多卡住主线程
+    private final MessageQueue.IdleHandler mPrewarmIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (mPrewarmRequests.isEmpty()) {
+                return false;
+            }
+            PrewarmRequest request = mPrewarmRequests.get(0);
+            RecyclerView.ViewHolder holder = request.mAdapter.createViewHolder(request.mParent, request.mViewType);
+            putRecycledView(holder);
+            if (--request.mCount <= 0) {
+                mPrewarmRequests.remove(0);
+            }
+            return !mPrewarmRequests.isEmpty();
+        }
+    };
+
+    public CleverRecycledViewPool() {
+        mPageDemands = new WeakHashMap<CleverRecyclerView, Integer>();
+        mKnownViewTypes = new SparseBooleanArray();
+        mPrewarmRequests = new ArrayList<PrewarmRequest>();
+        mReservedCarouselCount = DEFAULT_RESERVED_CAROUSEL_COUNT;
+    }
+
+    /**
+     * 设置每种ViewType需要为多少个CleverRecyclerView保留页面
+     *
+     * @param reservedCarouselCount 默认：2，即一个离开屏幕的同时另一个进入屏幕
+     */
+    public void setReservedCarouselCount(int reservedCarouselCount) {
+        if (reservedCarouselCount < 1) {
+            return;
+        }
+        mReservedCarouselCount = reservedCarouselCount;
+        updateCapacity();
+    }
+
+    /**
+     * 在主线程空闲时预先创建指定ViewType的ViewHolder并放入缓存池
+     *
+     * @param adapter  用来创建ViewHolder的Adapter
+     * @param parent   ViewHolder的父View
+     * @param viewType 目标ViewType
+     * @param count    创建的数量，超出容量的部分会被丢弃
+     */
+    public void prewarm(RecyclerView.Adapter<?> adapter, ViewGroup parent, int viewType, int count) {
+        if (count <= 0) {
+            return;
+        }
+        boolean idle = mPrewarmRequests.isEmpty();
+        mPrewarmRequests.add(new PrewarmRequest(adapter, parent, viewType, count));
+        if (idle) {
+            Looper.myQueue().addIdleHandler(mPrewarmIdleHandler);
+        }
+    }
+
+    /**
+     * 取消所有还没有完成的预创建
+     */
+    public void cancelPrewarm() {
+        mPrewarmRequests.clear();
+        Looper.myQueue().removeIdleHandler(mPrewarmIdleHandler);
+    }
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        int viewType = scrap.getItemViewType();
+        if (!mKnownViewTypes.get(viewType)) {
+            mKnownViewTypes.put(viewType, true);
+            if (mCapacity > 0) {
+                setMaxRecycledViews(viewType, mCapacity);
+            }
+        }
+        super.putRecycledView(scrap);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        cancelPrewarm();
+    }
+
+    /**
+     * 注册或者更新CleverRecyclerView需要的页数
+     *
+     * @param carousel   CleverRecyclerView
+     * @param pageDemand 需要的页数
+     */
+    void register(CleverRecyclerView carousel, int pageDemand) {
+        Integer oldDemand = mPageDemands.put(carousel, pageDemand);
+        if (oldDemand == null || oldDemand != pageDemand) {
+            updateCapacity();
+        }
+    }
+
+    void unregister(CleverRecyclerView carousel) {
+        if (mPageDemands.remove(carousel) != null) {
+            updateCapacity();
+        }
+    }
+
+    private void updateCapacity() {
+        int maxPageDemand = 0;
+        for (Map.Entry<CleverRecyclerView, Integer> entry : mPageDemands.entrySet()) {
+            maxPageDemand = Math.max(maxPageDemand, entry.getValue());
+        }
+        int capacity = maxPageDemand * mReservedCarouselCount;
+        if (capacity == mCapacity || capacity == 0) {
+            return;
+        }
+        mCapacity = capacity;
+        for (int i = 0, size = mKnownViewTypes.size(); i < size; i++) {
+            setMaxRecycledViews(mKnownViewTypes.keyAt(i), capacity);
+        }
+    }
+
+    private static class PrewarmRequest {
+        final RecyclerView.Adapter<?> mAdapter;
+        final ViewGroup mParent;
+        final int mViewType;
+        int mCount;
+
+        PrewarmRequest(RecyclerView.Adapter<?> adapter, ViewGroup parent, int viewType, int count) {
+            mAdapter = adapter;
+            mParent = parent;
+            mViewType = viewType;
+            mCount = count;
+        }
+    }
+}
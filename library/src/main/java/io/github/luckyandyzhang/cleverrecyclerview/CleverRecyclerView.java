@@ -16,36 +16,224 @@
 package io.github.luckyandyzhang.cleverrecyclerview;
 
 import android.content.Context;
+import android.graphics.Rect;
 import android.os.Parcelable;
-import android.support.v7.widget.LinearLayoutManager;
+import android.support.v4.view.ViewConfigurationCompat;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.Display;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
+
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
  * 实现了ViewPager效果的RecyclerView增强类
- * <p>与{@link CleverLinearLayoutManager}配合使用</p>
+ * <p>与{@link CleverPagerLayoutManager}配合使用</p>
  *
  * @author andy
  */
 public class CleverRecyclerView extends RecyclerView {
     private static final float DEFAULT_FLING_FRICTION = 0.8f;
+    private static final int DEFAULT_ITEM_VIEW_CACHE_SIZE = 2;
+    private static final int DEFAULT_MAX_HARDWARE_LAYER_COUNT = 3;
+
+    //手势方向：未确定、滚动方向、另一个方向
+    private static final int AXIS_LOCK_NONE = 0;
+    private static final int AXIS_LOCK_SCROLL = 1;
+    private static final int AXIS_LOCK_CROSS = 2;
 
     private float mFlingFriction;
-    private int mPositionBeforeDragging;
+    private int mMinFlingVelocity;
+    private int mMaxFlingVelocity;
+    private int mScrollOffsetBeforeDragging;
     private int mSmoothScrollTargetPosition;
     private int mCurrentPosition;
     private boolean mNeedAdjustAfterScrollStopped;
+    private boolean mLooping;
+    private int mMaxHardwareLayerCount = DEFAULT_MAX_HARDWARE_LAYER_COUNT;
+    private int mItemViewCacheSize = DEFAULT_ITEM_VIEW_CACHE_SIZE;
+    private boolean mMemoryTrimEnabled;
+    private int mTrimStep = CleverMemoryTrimmer.TRIM_STEP_NONE;
+    private long mAutoAdvanceIntervalMillis;
+    //是否已经注册到调度器，只有可见并且窗口有焦点时才注册
+    private boolean mAutoAdvanceRegistered;
+    private final Rect mAutoAdvanceVisibleRect = new Rect();
+    private boolean mTouching;
+    private boolean mAxisLockEnabled = true;
+    private int mAxisLock = AXIS_LOCK_NONE;
+    private int mTouchSlop;
+    private float mTouchDownX;
+    private float mTouchDownY;
 
-    private View mCurrentChildView;
     private CleverRecyclerViewAdapterProxy<?> mCleverRecyclerViewAdapterProxy;
     private CleverRecyclerViewHelper mCleverRecyclerViewHelper;
-    private CleverLinearLayoutManager mCleverLinearLayoutManager;
-    private boolean mHasUpdatedSnappyRecyclerViewHelper;
+    private CleverPagerLayoutManager mCleverPagerLayoutManager;
+    private CleverPrefetchBudget mCleverPrefetchBudget;
+    //预加载请求的布局还没有完成
+    private boolean mPrefetchLayoutPending;
+    private CleverSwipeTracker mCleverSwipeTracker;
+    private CleverAdapterStats mCleverAdapterStats;
+    private CleverRecycledViewPool mSharedRecycledViewPool;
+    private CleverLayerPromoter mCleverLayerPromoter;
+
+    //停止滚动后，每一帧最多多预加载一页，直到达到设置的页数
+    private final Runnable mPrefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (getScrollState() != SCROLL_STATE_IDLE || mCleverPrefetchBudget.isFullyGranted()) {
+                return;
+            }
+            //超出预算时先停下来，等下一次停止滚动时再继续；布局完成后根据布局的耗时决定是否继续
+            if (mCleverPrefetchBudget.onIdleFrame()) {
+                mPrefetchLayoutPending = true;
+                requestLayout();
+            }
+        }
+    };
 
     private OnPageChangedListener mOnPageChangedListener;
+    private PageTransformer mPageTransformer;
+    private OnPageEventListener mOnPageEventListener;
+    private boolean mPageScrolledPending;
+    private boolean mPreDrawListenerRegistered;
+    private final ArrayList<Runnable> mSettledRunnables = new ArrayList<Runnable>();
+
+    //同一帧内的多次滚动只回调一次onPageScrolled，在绘制之前回调
+    private final ViewTreeObserver.OnPreDrawListener mPageScrolledDispatcher = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            if (mPageScrolledPending) {
+                mPageScrolledPending = false;
+                dispatchPageScrolled();
+            }
+            return true;
+        }
+    };
+    private CleverPagePreloader mCleverPagePreloader;
+    private OnPageIntentListener mOnPageIntentListener;
+    //拖动过程中最近一次预测的目标页，只在变化时回调
+    private int mIntentPosition = NO_POSITION;
+
+    //监听数据的变化，维护当前页的位置，循环模式下所有变化都会被转换成onChanged
+    private final AdapterDataObserver mPageDataObserver = new AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            if (mCleverRecyclerViewAdapterProxy.isLooping()) {
+                onLoopDataChanged();
+                restorePendingStateIfReady();
+                return;
+            }
+            int itemCount = mCleverRecyclerViewAdapterProxy.getItemCount();
+            int position = Math.max(Math.min(mCurrentPosition, itemCount - 1), 0);
+            mSmoothScrollTargetPosition = Math.max(Math.min(mSmoothScrollTargetPosition, itemCount - 1), 0);
+            if (position != mCurrentPosition) {
+                moveCurrentPosition(position);
+                dispatchPageChanged(position);
+            } else {
+                moveCurrentPosition(position);
+            }
+            restorePendingStateIfReady();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (mCleverRecyclerViewAdapterProxy.getItemCount() == itemCount) {
+                //之前没有数据，当前页就是插入的第一项
+                restorePendingStateIfReady();
+                return;
+            }
+            moveCurrentPosition(positionStart <= mCurrentPosition ? mCurrentPosition + itemCount : mCurrentPosition);
+            if (positionStart <= mSmoothScrollTargetPosition) {
+                onTargetPositionShifted(mSmoothScrollTargetPosition + itemCount);
+            }
+            restorePendingStateIfReady();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            int positionEnd = positionStart + itemCount;
+            int newItemCount = mCleverRecyclerViewAdapterProxy.getItemCount();
+            if (mCurrentPosition >= positionEnd) {
+                moveCurrentPosition(mCurrentPosition - itemCount);
+            } else if (mCurrentPosition >= positionStart) {
+                //当前页被移除，停留在原来的下标上，数据被清空时没有新的当前页
+                moveCurrentPosition(Math.max(Math.min(positionStart, newItemCount - 1), 0));
+                if (newItemCount > 0) {
+                    dispatchPageChanged(mCurrentPosition);
+                }
+            }
+            if (mSmoothScrollTargetPosition >= positionEnd) {
+                onTargetPositionShifted(mSmoothScrollTargetPosition - itemCount);
+            } else if (mSmoothScrollTargetPosition >= positionStart) {
+                onTargetPositionShifted(Math.max(Math.min(positionStart, mCleverRecyclerViewAdapterProxy.getItemCount() - 1), 0));
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            //代理只会转发单项的移动
+            moveCurrentPosition(getMovedPosition(mCurrentPosition, fromPosition, toPosition));
+            onTargetPositionShifted(getMovedPosition(mSmoothScrollTargetPosition, fromPosition, toPosition));
+        }
+    };
+
+    //滚动过程中目标页被数据变化移动时，需要在下一帧重新发起滚动
+    private final Runnable mRetargetRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (getScrollState() == SCROLL_STATE_SETTLING) {
+                CleverRecyclerView.super.smoothScrollToPosition(mSmoothScrollTargetPosition);
+            }
+        }
+    };
+
+    //恢复的状态停在两页之间时，布局完成后吸附到保存的页
+    private final Runnable mRestoreSnapRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (getScrollState() == SCROLL_STATE_IDLE && mSmoothScrollTargetPosition != NO_POSITION) {
+                CleverRecyclerView.super.smoothScrollToPosition(mSmoothScrollTargetPosition);
+            }
+        }
+    };
+
+    //等待Adapter有数据之后再恢复的状态
+    private CleverSavedState mPendingSavedState;
+
+    //循环模式下submitPages时当前页在新数据中的位置（真实位置）
+    private int mPendingAnchorPosition = NO_POSITION;
+    private boolean mAnchoredPageRemoved;
+
+    private final CleverPageAdapter.OnPagesUpdateListener mOnPagesUpdateListener = new CleverPageAdapter.OnPagesUpdateListener() {
+        @Override
+        public void onPagesUpdating(CleverPageDiff diff, int newCount) {
+            //非循环模式下由mPageDataObserver根据每一个区间变化维护当前页
+            if (!mCleverRecyclerViewAdapterProxy.isLooping()) {
+                return;
+            }
+            int realPosition = getCurrentPosition();
+            int anchorPosition = diff != null ? diff.convertOldPositionToNew(realPosition) : NO_POSITION;
+            mAnchoredPageRemoved = anchorPosition == NO_POSITION;
+            if (mAnchoredPageRemoved) {
+                //当前页被移除时停留在原来的下标上
+                anchorPosition = Math.max(Math.min(realPosition, newCount - 1), 0);
+            }
+            mPendingAnchorPosition = anchorPosition;
+        }
+
+        @Override
+        public void onPagesUpdated() {
+            mPendingAnchorPosition = NO_POSITION;
+        }
+    };
 
     public CleverRecyclerView(Context context) {
         super(context);
@@ -63,30 +251,65 @@ public class CleverRecyclerView extends RecyclerView {
     @Override
     protected Parcelable onSaveInstanceState() {
         Parcelable parcelable = super.onSaveInstanceState();
-        return new CleverSavedState(parcelable, mCurrentPosition);
+        if (mPendingSavedState != null) {
+            //还没有恢复就再次保存时，沿用之前的状态
+            return new CleverSavedState(parcelable, mPendingSavedState);
+        }
+        int position = getCurrentPosition();
+        long itemId = NO_ID;
+        Adapter adapter = getAdapter();
+        if (adapter != null && adapter.hasStableIds() && position >= 0 && position < adapter.getItemCount()) {
+            itemId = adapter.getItemId(position);
+        }
+        //偏移相对于保存的页，滚动中保存时就是离目标页的距离
+        int pageOffset = mCurrentPosition == NO_POSITION ? 0
+                : mCleverRecyclerViewHelper.getScrollOffset() - mCurrentPosition * mCleverRecyclerViewHelper.getPageSize();
+        return new CleverSavedState(parcelable, position, itemId, pageOffset,
+                mCleverRecyclerViewHelper.getVisibleChildCount(), mCleverRecyclerViewHelper.getOrientation());
     }
 
     @Override
     protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof CleverSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
         CleverSavedState cleverSavedState = (CleverSavedState) state;
-        mCurrentPosition = mSmoothScrollTargetPosition = cleverSavedState.getLastScrollPostion();
-        scrollToPosition(mCurrentPosition);
         super.onRestoreInstanceState(cleverSavedState.getSuperState());
+        mPendingSavedState = cleverSavedState;
+        restorePendingStateIfReady();
     }
 
     @Override
     public void setLayoutManager(LayoutManager layout) {
         super.setLayoutManager(layout);
-        if (layout instanceof CleverLinearLayoutManager) {
-            mCleverRecyclerViewHelper.setOrientation(((CleverLinearLayoutManager) layout).getOrientation());
+        if (layout instanceof CleverPagerLayoutManager) {
+            mCleverRecyclerViewHelper.setOrientation(((CleverPagerLayoutManager) layout).getOrientation());
         }
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void setAdapter(Adapter adapter) {
-        mCleverRecyclerViewAdapterProxy = new CleverRecyclerViewAdapterProxy(this, adapter);
+        if (mCleverRecyclerViewAdapterProxy != null) {
+            mCleverRecyclerViewAdapterProxy.unregisterAdapterDataObserver(mPageDataObserver);
+            if (mCleverRecyclerViewAdapterProxy.getAdapter() instanceof CleverPageAdapter) {
+                ((CleverPageAdapter<?, ?>) mCleverRecyclerViewAdapterProxy.getAdapter()).setOnPagesUpdateListener(null);
+            }
+        }
+        if (adapter instanceof CleverPageAdapter) {
+            ((CleverPageAdapter<?, ?>) adapter).setOnPagesUpdateListener(mOnPagesUpdateListener);
+        }
+        mCleverRecyclerViewAdapterProxy = new CleverRecyclerViewAdapterProxy(mCleverPrefetchBudget, adapter);
+        mCleverRecyclerViewAdapterProxy.setLooping(mLooping);
+        mCleverRecyclerViewAdapterProxy.setAdapterStats(mCleverAdapterStats);
         super.setAdapter(mCleverRecyclerViewAdapterProxy);
+        mCleverRecyclerViewAdapterProxy.registerAdapterDataObserver(mPageDataObserver);
+        if (mLooping) {
+            mCurrentPosition = mSmoothScrollTargetPosition = mCleverRecyclerViewAdapterProxy.getLoopCenterPosition();
+            super.scrollToPosition(mCurrentPosition);
+        }
+        restorePendingStateIfReady();
     }
 
     @Override
@@ -97,31 +320,270 @@ public class CleverRecyclerView extends RecyclerView {
         return null;
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        Display display = ((WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
+        float refreshRate = display.getRefreshRate();
+        if (refreshRate >= 30f) {
+            long frameIntervalNanos = (long) (1000000000L / refreshRate);
+            mCleverPrefetchBudget.setFrameIntervalNanos(frameIntervalNanos);
+            mCleverSwipeTracker.setFrameIntervalNanos(frameIntervalNanos);
+        }
+        updateAutoAdvanceRegistration();
+        updatePreDrawListener();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mAutoAdvanceRegistered) {
+            mAutoAdvanceRegistered = false;
+            CleverAutoAdvanceScheduler.getInstance().unregister(this);
+        }
+        if (mPreDrawListenerRegistered) {
+            getViewTreeObserver().removeOnPreDrawListener(mPageScrolledDispatcher);
+            mPreDrawListenerRegistered = false;
+        }
+        removeCallbacks(mPrefetchRunnable);
+        mPrefetchLayoutPending = false;
+        removeCallbacks(mRetargetRunnable);
+        removeCallbacks(mRestoreSnapRunnable);
+        mCleverSwipeTracker.stop();
+        if (mCleverLayerPromoter != null) {
+            mCleverLayerPromoter.demoteAll();
+        }
+        if (mCleverPagePreloader != null) {
+            mCleverPagePreloader.cancelAll();
+        }
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mTouching = true;
+                mAxisLock = mAxisLockEnabled ? AXIS_LOCK_NONE : AXIS_LOCK_SCROLL;
+                mTouchDownX = ev.getX();
+                mTouchDownY = ev.getY();
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (mAxisLock == AXIS_LOCK_NONE) {
+                    updateAxisLock(ev);
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mTouching = false;
+                restartAutoAdvance();
+                break;
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
+    /**
+     * 手势方向确定之前以及确定为另一个方向之后，移动事件不进入RecyclerView的拦截逻辑
+     */
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent e) {
+        if (mAxisLock != AXIS_LOCK_SCROLL && e.getActionMasked() == MotionEvent.ACTION_MOVE) {
+            return false;
+        }
+        return super.onInterceptTouchEvent(e);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent e) {
+        if (mAxisLock == AXIS_LOCK_SCROLL) {
+            return super.onTouchEvent(e);
+        }
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mAxisLock == AXIS_LOCK_CROSS) {
+                    //另一个方向的手势松手时不能触发fling，按照取消处理
+                    MotionEvent cancelEvent = MotionEvent.obtain(e);
+                    cancelEvent.setAction(MotionEvent.ACTION_CANCEL);
+                    super.onTouchEvent(cancelEvent);
+                    cancelEvent.recycle();
+                    return true;
+                }
+                break;
+        }
+        return super.onTouchEvent(e);
+    }
+
+    @Override
+    public void setScrollingTouchSlop(int slopConstant) {
+        super.setScrollingTouchSlop(slopConstant);
+        ViewConfiguration viewConfiguration = ViewConfiguration.get(getContext());
+        mTouchSlop = slopConstant == TOUCH_SLOP_PAGING
+                ? ViewConfigurationCompat.getScaledPagingTouchSlop(viewConfiguration)
+                : viewConfiguration.getScaledTouchSlop();
+    }
+
+    /**
+     * 移动距离超过touch slop时确定本次手势的方向，之后不再重新判断
+     * <p>与ViewPager一样，滚动方向的距离需要超过另一个方向的两倍；另一个方向先超过touch slop时，
+     * 停止嵌套滚动并允许父View拦截，例如嵌套在纵向RecyclerView中的横向CleverRecyclerView</p>
+     */
+    private void updateAxisLock(MotionEvent ev) {
+        boolean vertical = mCleverRecyclerViewHelper.getOrientation() == CleverPagerLayoutManager.VERTICAL;
+        float dx = Math.abs(ev.getX() - mTouchDownX);
+        float dy = Math.abs(ev.getY() - mTouchDownY);
+        float scrollDelta = vertical ? dy : dx;
+        float crossDelta = vertical ? dx : dy;
+        ViewParent parent = getParent();
+        if (scrollDelta > mTouchSlop && scrollDelta * 0.5f > crossDelta) {
+            mAxisLock = AXIS_LOCK_SCROLL;
+            if (parent != null) {
+                parent.requestDisallowInterceptTouchEvent(true);
+            }
+        } else if (crossDelta > mTouchSlop) {
+            mAxisLock = AXIS_LOCK_CROSS;
+            stopNestedScroll();
+            if (parent != null) {
+                parent.requestDisallowInterceptTouchEvent(false);
+            }
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAutoAdvanceRegistration();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAutoAdvanceRegistration();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updateAutoAdvanceRegistration();
+    }
+
+    @Override
+    public void onChildDetachedFromWindow(View child) {
+        super.onChildDetachedFromWindow(child);
+        if (mCleverLayerPromoter != null) {
+            mCleverLayerPromoter.demote(child);
+        }
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        long startNanos = mPrefetchLayoutPending ? System.nanoTime() : 0;
         super.onLayout(changed, l, t, r, b);
-        if (!mHasUpdatedSnappyRecyclerViewHelper) {
-            mHasUpdatedSnappyRecyclerViewHelper = true;
+        if (mPrefetchLayoutPending) {
+            mPrefetchLayoutPending = false;
+            if (mCleverPrefetchBudget.onIdleLayout(System.nanoTime() - startNanos)) {
+                postOnAnimation(mPrefetchRunnable);
+            }
+        }
+        //布局之后以第一个子View为参照校正滚动距离，滚动过程中则只根据增量计算
+        if (getChildCount() > 0) {
+            View child = getChildAt(0);
+            mCleverRecyclerViewHelper.syncScrollOffset(getChildLayoutPosition(child), child);
+        }
+        transformPages();
+    }
+
+    @Override
+    public void onScrolled(int dx, int dy) {
+        super.onScrolled(dx, dy);
+        if (getLayoutManager() == mCleverPagerLayoutManager) {
+            //跳转不会体现在增量中，直接使用LayoutManager的滚动距离
+            mCleverRecyclerViewHelper.setScrollOffset(mCleverPagerLayoutManager.getScrollOffset());
+        } else {
+            mCleverRecyclerViewHelper.onScrolled(dx, dy);
+        }
+        transformPages();
+        if (mOnPageEventListener != null) {
+            mPageScrolledPending = true;
+        }
+        if (getScrollState() == SCROLL_STATE_DRAGGING) {
+            updateDraggingIntent();
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        //此时正处于layout过程中，接下来的onLayout会按照新的尺寸重新测量子View
+        mCleverRecyclerViewHelper.updateConfiguration();
+    }
+
+    @Override
+    public void setPadding(int left, int top, int right, int bottom) {
+        super.setPadding(left, top, right, bottom);
+        if (mCleverRecyclerViewHelper != null) {
             mCleverRecyclerViewHelper.updateConfiguration();
+            requestLayout();
         }
     }
 
+    /**
+     * 不再调用super.fling()，而是预测fling最终停下的页，然后只执行一次滚动到该页的动画
+     */
     @Override
     public boolean fling(int velocityX, int velocityY) {
-        boolean isFlinging = super.fling((int) (velocityX * mFlingFriction), (int) (velocityY * mFlingFriction));
-        if (isFlinging) {
-            adjustPositionWithVelocity((int) (velocityX * mFlingFriction), (int) (velocityY * mFlingFriction));
+        LayoutManager layoutManager = getLayoutManager();
+        if (layoutManager == null || getAdapter() == null || getChildCount() == 0) {
+            return false;
+        }
+        velocityX = layoutManager.canScrollHorizontally() ? (int) (velocityX * mFlingFriction) : 0;
+        velocityY = layoutManager.canScrollVertically() ? (int) (velocityY * mFlingFriction) : 0;
+        if (Math.abs(velocityX) < mMinFlingVelocity) {
+            velocityX = 0;
+        }
+        if (Math.abs(velocityY) < mMinFlingVelocity) {
+            velocityY = 0;
+        }
+        if (velocityX == 0 && velocityY == 0) {
+            return false;
+        }
+        if (dispatchNestedPreFling(velocityX, velocityY)) {
+            return false;
         }
-        return isFlinging;
+        dispatchNestedFling(velocityX, velocityY, true);
+
+        velocityX = Math.max(-mMaxFlingVelocity, Math.min(velocityX, mMaxFlingVelocity));
+        velocityY = Math.max(-mMaxFlingVelocity, Math.min(velocityY, mMaxFlingVelocity));
+        int scrolledDistance = 0;
+        if (getScrollState() == SCROLL_STATE_DRAGGING) {
+            scrolledDistance = mCleverRecyclerViewHelper.getScrollOffset() - mScrollOffsetBeforeDragging;
+        }
+        int flingCount = mCleverRecyclerViewHelper.getFlingCountWithVelocity(velocityX, velocityY, scrolledDistance);
+        int safeTargetPosition = mCleverRecyclerViewHelper.getTargetPositionSafely(mCurrentPosition + flingCount, mCleverRecyclerViewAdapterProxy.getItemCount());
+        dispatchReleaseIntent(safeTargetPosition);
+        mCleverSwipeTracker.onReleased(true);
+        smoothScrollToPage(safeTargetPosition);
+        return true;
     }
 
+    /**
+     * 平滑滚动到指定位置
+     * <p>循环模式下，position是真实数据中的位置，会滚动到离当前页最近的对应页</p>
+     */
     @Override
     public void smoothScrollToPosition(int position) {
-        if (mOnPageChangedListener != null && mCurrentPosition != NO_POSITION && mSmoothScrollTargetPosition != position) {
-            mOnPageChangedListener.onPageChanged(position);
-        }
-        mCurrentPosition = mSmoothScrollTargetPosition = position;
-        super.smoothScrollToPosition(position);
+        smoothScrollToPage(toAdapterPosition(position));
+    }
+
+    /**
+     * 滚动到指定位置
+     * <p>循环模式下，position是真实数据中的位置</p>
+     */
+    @Override
+    public void scrollToPosition(int position) {
+        int adapterPosition = toAdapterPosition(position);
+        mCurrentPosition = mSmoothScrollTargetPosition = adapterPosition;
+        super.scrollToPosition(adapterPosition);
     }
 
     // 1.SCROLL_STATE_DRAGGING -> SCROLL_STATE_IDLE （用户松手后，视图没有在滚动的情况）
@@ -134,30 +596,42 @@ public class CleverRecyclerView extends RecyclerView {
         super.onScrollStateChanged(state);
         switch (state) {
             case SCROLL_STATE_DRAGGING:
-                mCurrentChildView = mCleverRecyclerViewHelper.getCurrentFirstVisibleChild();
-                mCurrentPosition = getChildAdapterPosition(mCurrentChildView);
-                if (mCurrentChildView != null) {
-                    mPositionBeforeDragging = mCleverRecyclerViewHelper.getChildCurrentPosition(mCurrentChildView);
-                }
+                //根据滚动距离直接算出当前页，不需要遍历子View
+                mCurrentPosition = mCleverRecyclerViewHelper.getCurrentPage();
+                mScrollOffsetBeforeDragging = mCleverRecyclerViewHelper.getScrollOffset();
                 mNeedAdjustAfterScrollStopped = true;
+                mIntentPosition = mCurrentPosition;
+                mCleverSwipeTracker.onDragStarted(getCurrentPosition());
+                restoreTrimmedCaches();
+                if (mCleverLayerPromoter != null) {
+                    mCleverLayerPromoter.promote();
+                }
                 break;
             case SCROLL_STATE_SETTLING:
                 mNeedAdjustAfterScrollStopped = false;
+                if (mCleverLayerPromoter != null) {
+                    mCleverLayerPromoter.promote();
+                }
                 break;
             case SCROLL_STATE_IDLE:
                 //没有触发fling时，需要再次处理子View的位置偏移
                 if (mNeedAdjustAfterScrollStopped) {
-                    if (mCurrentChildView != null) {
-                        float draggingDistance = mCleverRecyclerViewHelper.getChildCurrentPosition(mCurrentChildView) - mPositionBeforeDragging;
-                        if (mCleverRecyclerViewHelper.isRightScrollTriggered(draggingDistance) || mCleverRecyclerViewHelper.isDownScrollTriggered(draggingDistance)) {
-                            mCurrentPosition--;
-                        } else if (mCleverRecyclerViewHelper.isLeftScrollTriggered(draggingDistance) || mCleverRecyclerViewHelper.isUpScrollTriggered(draggingDistance)) {
-                            mCurrentPosition++;
-                        }
-
-                        int safeTargetPosition = mCleverRecyclerViewHelper.getTargetPositionSafely(mCurrentPosition, getAdapter().getItemCount());
-                        smoothScrollToPosition(safeTargetPosition);
+                    if (getChildCount() > 0) {
+                        float draggingDistance = mScrollOffsetBeforeDragging - mCleverRecyclerViewHelper.getScrollOffset();
+                        int safeTargetPosition = getDraggingTargetPosition(draggingDistance);
+                        dispatchReleaseIntent(safeTargetPosition);
+                        mCleverSwipeTracker.onReleased(false);
+                        smoothScrollToPage(safeTargetPosition);
                     }
+                } else {
+                    mCleverSwipeTracker.onSettled(getCurrentPosition());
+                    restartAutoAdvance();
+                    dispatchPageSettled();
+                    if (mCleverLayerPromoter != null) {
+                        mCleverLayerPromoter.demoteAll();
+                    }
+                    recenterLoopIfNeeded();
+                    schedulePrefetch();
                 }
                 break;
         }
@@ -165,41 +639,348 @@ public class CleverRecyclerView extends RecyclerView {
 
     private void init() {
         mCleverRecyclerViewHelper = new CleverRecyclerViewHelper(this);
-        mCleverLinearLayoutManager = new CleverLinearLayoutManager(getContext());
-        mCleverLinearLayoutManager.setOrientation(LinearLayoutManager.HORIZONTAL);
-        setLayoutManager(mCleverLinearLayoutManager);
+        mCleverPrefetchBudget = new CleverPrefetchBudget();
+        mCleverSwipeTracker = new CleverSwipeTracker();
+        mCleverPagerLayoutManager = new CleverPagerLayoutManager(mCleverRecyclerViewHelper);
+        mCleverPagerLayoutManager.setOrientation(CleverPagerLayoutManager.HORIZONTAL);
+        mCleverPagerLayoutManager.setPrefetchBudget(mCleverPrefetchBudget);
+        setLayoutManager(mCleverPagerLayoutManager);
 
         mFlingFriction = (1.0f - DEFAULT_FLING_FRICTION);
+        ViewConfiguration viewConfiguration = ViewConfiguration.get(getContext());
+        mMinFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+        mMaxFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        mTouchSlop = viewConfiguration.getScaledTouchSlop();
         setDescendantFocusability(FOCUS_AFTER_DESCENDANTS);
     }
 
     /**
-     * 根据快速滚动的速度对子View进行偏移
+     * 根据拖动距离是否超过阀值得出目标页，不考虑速度
+     *
+     * @param draggingDistance 拖动距离，往下一页方向为负
+     * @return RecyclerView中的位置
      */
-    private void adjustPositionWithVelocity(int velocityX, int velocityY) {
-        if (getChildCount() > 0) {
-            int flingCount = mCleverRecyclerViewHelper.getFlingCountWithVelocity(velocityX, velocityY);
-            int safeTargetPosition = mCleverRecyclerViewHelper.getTargetPositionSafely(mCurrentPosition + flingCount, getAdapter().getItemCount());
-            smoothScrollToPosition(safeTargetPosition);
+    private int getDraggingTargetPosition(float draggingDistance) {
+        int position = mCurrentPosition;
+        if (mCleverRecyclerViewHelper.isRightScrollTriggered(draggingDistance) || mCleverRecyclerViewHelper.isDownScrollTriggered(draggingDistance)) {
+            position--;
+        } else if (mCleverRecyclerViewHelper.isLeftScrollTriggered(draggingDistance) || mCleverRecyclerViewHelper.isUpScrollTriggered(draggingDistance)) {
+            position++;
+        }
+        return mCleverRecyclerViewHelper.getTargetPositionSafely(position, mCleverRecyclerViewAdapterProxy.getItemCount());
+    }
+
+    /**
+     * 拖动过程中，拖动距离越过（或者退回）阀值时预测新的目标页，并让预加载器提前开始加载
+     */
+    private void updateDraggingIntent() {
+        CleverRecyclerViewAdapterProxy<?> adapterProxy = mCleverRecyclerViewAdapterProxy;
+        int pageSize = mCleverRecyclerViewHelper.getPageSize();
+        if ((mOnPageIntentListener == null && mCleverPagePreloader == null) || adapterProxy == null
+                || mCurrentPosition == NO_POSITION || pageSize <= 0) {
+            return;
+        }
+        float draggingDistance = mScrollOffsetBeforeDragging - mCleverRecyclerViewHelper.getScrollOffset();
+        int targetPosition = getDraggingTargetPosition(draggingDistance);
+        if (targetPosition == mIntentPosition) {
+            return;
+        }
+        int direction = targetPosition - mIntentPosition;
+        mIntentPosition = targetPosition;
+        int realPosition = adapterProxy.getRealPosition(targetPosition);
+        if (mOnPageIntentListener != null) {
+            float progress = Math.min(1.0f, Math.abs(draggingDistance) / pageSize);
+            mOnPageIntentListener.onPageIntent(realPosition, targetPosition == mCurrentPosition ? 1.0f - progress : progress);
+        }
+        if (mCleverPagePreloader != null) {
+            mCleverPagePreloader.onTargetPageChanged(realPosition, direction, adapterProxy.getRealItemCount(), adapterProxy.isLooping());
+        }
+    }
+
+    /**
+     * 松手后目标页已经确定，在onPageChanged之前回调
+     */
+    private void dispatchReleaseIntent(int position) {
+        mIntentPosition = NO_POSITION;
+        if (mOnPageIntentListener != null) {
+            mOnPageIntentListener.onPageIntent(mCleverRecyclerViewAdapterProxy.getRealPosition(position), 1.0f);
+        }
+    }
+
+    /**
+     * 滚动到指定页，position是RecyclerView中的位置，循环模式下即虚拟位置
+     */
+    private void smoothScrollToPage(int position) {
+        CleverRecyclerViewAdapterProxy<?> adapterProxy = mCleverRecyclerViewAdapterProxy;
+        if (mOnPageChangedListener != null && mCurrentPosition != NO_POSITION && mSmoothScrollTargetPosition != position) {
+            mOnPageChangedListener.onPageChanged(adapterProxy != null ? adapterProxy.getRealPosition(position) : position);
+        }
+        if (mCleverPagePreloader != null && adapterProxy != null) {
+            mCleverPagePreloader.onTargetPageChanged(adapterProxy.getRealPosition(position), position - mSmoothScrollTargetPosition,
+                    adapterProxy.getRealItemCount(), adapterProxy.isLooping());
+        }
+        mCurrentPosition = mSmoothScrollTargetPosition = position;
+        super.smoothScrollToPosition(position);
+    }
+
+    /**
+     * Adapter第一次有数据时恢复保存的状态，直接布局到保存的页面上，不会有多余的绑定
+     * <p>保存时正在滚动的，恢复到当时的偏移之后再吸附到保存的页</p>
+     */
+    private void restorePendingStateIfReady() {
+        CleverSavedState savedState = mPendingSavedState;
+        CleverRecyclerViewAdapterProxy<?> adapterProxy = mCleverRecyclerViewAdapterProxy;
+        if (savedState == null || adapterProxy == null || adapterProxy.getRealItemCount() == 0) {
+            return;
+        }
+        mPendingSavedState = null;
+        int realPosition = findSavedPosition(savedState, adapterProxy.getAdapter());
+        //布局配置变化之后页内偏移没有意义，直接对齐到页
+        int pageOffset = savedState.isSameConfig(mCleverRecyclerViewHelper.getVisibleChildCount(), mCleverRecyclerViewHelper.getOrientation())
+                ? savedState.getPageOffset() : 0;
+        mCurrentPosition = mSmoothScrollTargetPosition = adapterProxy.getVirtualPosition(realPosition, NO_POSITION);
+        mCleverPagerLayoutManager.scrollToPositionWithOffset(mCurrentPosition, -pageOffset);
+        if (pageOffset != 0) {
+            removeCallbacks(mRestoreSnapRunnable);
+            post(mRestoreSnapRunnable);
+        }
+    }
+
+    /**
+     * 优先按照id查找保存的页面，找不到时使用保存的位置
+     */
+    private static int findSavedPosition(CleverSavedState savedState, Adapter adapter) {
+        int itemCount = adapter.getItemCount();
+        int position = savedState.getPosition();
+        long itemId = savedState.getItemId();
+        if (itemId != NO_ID && adapter.hasStableIds()) {
+            if (position >= 0 && position < itemCount && adapter.getItemId(position) == itemId) {
+                return position;
+            }
+            for (int i = 0; i < itemCount; i++) {
+                if (adapter.getItemId(i) == itemId) {
+                    return i;
+                }
+            }
+        }
+        return Math.max(Math.min(position, itemCount - 1), 0);
+    }
+
+    /**
+     * 根据子View的位置和缓存的页尺寸算出每一页的偏移，不查询位置，也不分配对象
+     */
+    private void transformPages() {
+        PageTransformer pageTransformer = mPageTransformer;
+        int pageSize = mCleverRecyclerViewHelper.getPageSize();
+        if (pageTransformer == null || pageSize <= 0) {
+            return;
+        }
+        boolean vertical = mCleverRecyclerViewHelper.getOrientation() == CleverPagerLayoutManager.VERTICAL;
+        int paddingStart = vertical ? getPaddingTop() : getPaddingLeft();
+        for (int i = 0, count = getChildCount(); i < count; i++) {
+            View child = getChildAt(i);
+            int childStart = vertical ? child.getTop() : child.getLeft();
+            pageTransformer.transformPage(child, (float) (childStart - paddingStart) / pageSize);
+        }
+    }
+
+    private void dispatchPageScrolled() {
+        OnPageEventListener onPageEventListener = mOnPageEventListener;
+        int pageSize = mCleverRecyclerViewHelper.getPageSize();
+        if (onPageEventListener == null || pageSize <= 0) {
+            return;
+        }
+        int scrollOffset = mCleverRecyclerViewHelper.getScrollOffset();
+        int page = scrollOffset >= 0 ? scrollOffset / pageSize : (scrollOffset + 1) / pageSize - 1;
+        int offsetPixels = scrollOffset - page * pageSize;
+        if (mCleverRecyclerViewAdapterProxy != null) {
+            page = mCleverRecyclerViewAdapterProxy.getRealPosition(page);
+        }
+        onPageEventListener.onPageScrolled(page, (float) offsetPixels / pageSize, offsetPixels);
+    }
+
+    /**
+     * 吸附完成并且进入SCROLL_STATE_IDLE之后调用
+     */
+    private void dispatchPageSettled() {
+        if (mOnPageEventListener != null) {
+            mOnPageEventListener.onPageSettled(getCurrentPosition());
+        }
+        //放到消息队列中，避免和这一帧剩下的工作挤在一起
+        for (int i = 0, size = mSettledRunnables.size(); i < size; i++) {
+            post(mSettledRunnables.get(i));
+        }
+        mSettledRunnables.clear();
+    }
+
+    private void updatePreDrawListener() {
+        boolean register = mOnPageEventListener != null && getWindowToken() != null;
+        if (register != mPreDrawListenerRegistered) {
+            if (register) {
+                getViewTreeObserver().addOnPreDrawListener(mPageScrolledDispatcher);
+            } else {
+                getViewTreeObserver().removeOnPreDrawListener(mPageScrolledDispatcher);
+            }
+            mPreDrawListenerRegistered = register;
+        }
+    }
+
+    private boolean isSettled() {
+        return getScrollState() == SCROLL_STATE_IDLE && !mNeedAdjustAfterScrollStopped;
+    }
+
+    private void dispatchPageChanged(int realPosition) {
+        if (mOnPageChangedListener != null) {
+            mOnPageChangedListener.onPageChanged(realPosition);
+        }
+    }
+
+    /**
+     * 数据变化后更新当前页，LayoutManager在下一次布局时以同一页为锚点，两者对当前页的判断保持一致
+     */
+    private void moveCurrentPosition(int position) {
+        mCleverPagerLayoutManager.offsetAnchorPosition(position - mCurrentPosition);
+        mCurrentPosition = position;
+    }
+
+    /**
+     * 目标页的下标因为数据变化而改变，只有正在滚向目标页时才需要重新发起滚动
+     */
+    private void onTargetPositionShifted(int position) {
+        if (position == mSmoothScrollTargetPosition) {
+            return;
+        }
+        mSmoothScrollTargetPosition = position;
+        if (getScrollState() == SCROLL_STATE_SETTLING) {
+            removeCallbacks(mRetargetRunnable);
+            post(mRetargetRunnable);
+        }
+    }
+
+    /**
+     * 计算单项移动之后某个位置的新下标
+     */
+    private static int getMovedPosition(int position, int fromPosition, int toPosition) {
+        if (position == fromPosition) {
+            return toPosition;
+        }
+        if (fromPosition < position && toPosition >= position) {
+            return position - 1;
+        }
+        if (fromPosition > position && toPosition <= position) {
+            return position + 1;
+        }
+        return position;
+    }
+
+    /**
+     * 将真实数据中的位置转换成RecyclerView中的位置
+     */
+    private int toAdapterPosition(int position) {
+        if (mCleverRecyclerViewAdapterProxy == null) {
+            return position;
         }
+        return mCleverRecyclerViewAdapterProxy.getVirtualPosition(position, mCurrentPosition);
+    }
+
+    /**
+     * 循环模式下，停止滚动时如果离虚拟位置的两端太近，则无动画地跳回到中心附近的对应页
+     */
+    private void recenterLoopIfNeeded() {
+        if (mCleverRecyclerViewAdapterProxy != null && mCleverRecyclerViewAdapterProxy.needRecenter(mCurrentPosition)) {
+            int realPosition = mCleverRecyclerViewAdapterProxy.getRealPosition(mCurrentPosition);
+            mCurrentPosition = mSmoothScrollTargetPosition = mCleverRecyclerViewAdapterProxy.getVirtualPosition(realPosition, NO_POSITION);
+            super.scrollToPosition(mCurrentPosition);
+        }
+    }
+
+    /**
+     * 循环模式下数据发生变化时，重新建立虚拟位置的映射，并停留在原来的真实位置上
+     */
+    private void onLoopDataChanged() {
+        CleverRecyclerViewAdapterProxy<?> adapterProxy = mCleverRecyclerViewAdapterProxy;
+        int realPosition = adapterProxy.getRealPosition(mCurrentPosition);
+        if (mPendingAnchorPosition != NO_POSITION) {
+            realPosition = mPendingAnchorPosition;
+            mPendingAnchorPosition = NO_POSITION;
+            if (mAnchoredPageRemoved) {
+                dispatchPageChanged(realPosition);
+            }
+        }
+        adapterProxy.syncLoopItemCount();
+        int realItemCount = adapterProxy.getRealItemCount();
+        if (realItemCount == 0) {
+            mCurrentPosition = mSmoothScrollTargetPosition = 0;
+            return;
+        }
+        int position = adapterProxy.getVirtualPosition(Math.min(Math.max(realPosition, 0), realItemCount - 1), NO_POSITION);
+        if (position != mCurrentPosition) {
+            mCurrentPosition = mSmoothScrollTargetPosition = position;
+            super.scrollToPosition(position);
+        }
+    }
+
+    private void schedulePrefetch() {
+        if (mTrimStep == CleverMemoryTrimmer.TRIM_STEP_NONE && !mCleverPrefetchBudget.isFullyGranted()) {
+            removeCallbacks(mPrefetchRunnable);
+            postOnAnimation(mPrefetchRunnable);
+        }
+    }
+
+    /**
+     * 替换数据，差分在后台线程中计算，更新后会按照页面的id停留在原来的页面上
+     * <p>当前页被移除时停留在原来的下标上，并回调{@link OnPageChangedListener}</p>
+     *
+     * @param pages 新的数据
+     */
+    @SuppressWarnings("unchecked")
+    public void submitPages(List<?> pages) {
+        Adapter adapter = getAdapter();
+        if (!(adapter instanceof CleverPageAdapter)) {
+            throw new IllegalStateException("you must set a CleverPageAdapter by #CleverRecyclerView.setAdapter(Adapter adapter) before calling this method");
+        }
+        ((CleverPageAdapter) adapter).submitPages(pages);
     }
 
     /**
      * 获取当前的位置
      *
-     * @return 当前位置
+     * @return 当前位置，循环模式下是真实数据中的位置
      */
     public int getCurrentPosition() {
+        if (mCleverRecyclerViewAdapterProxy != null) {
+            return mCleverRecyclerViewAdapterProxy.getRealPosition(mCurrentPosition);
+        }
         return mCurrentPosition;
     }
 
+    /**
+     * 设置是否循环显示，开启后可以无限地往两个方向滑动
+     * <li>getCurrentPosition()、OnPageChangedListener以及保存的状态都使用真实数据中的位置
+     * <li>ViewHolder#getAdapterPosition()返回的是虚拟位置，Adapter中请使用onBindViewHolder传入的位置
+     *
+     * @param looping 是否循环，默认：false
+     */
+    public void setLooping(boolean looping) {
+        if (mLooping == looping) {
+            return;
+        }
+        int realPosition = getCurrentPosition();
+        mLooping = looping;
+        if (mCleverRecyclerViewAdapterProxy != null) {
+            mCleverRecyclerViewAdapterProxy.setLooping(looping);
+            mCurrentPosition = mSmoothScrollTargetPosition = mCleverRecyclerViewAdapterProxy.getVirtualPosition(Math.max(realPosition, 0), NO_POSITION);
+            super.scrollToPosition(mCurrentPosition);
+        }
+    }
+
     /**
      * 设置布局方向
      *
      * @param orientation
      */
     public void setOrientation(int orientation) {
-        mCleverLinearLayoutManager.setOrientation(orientation);
+        mCleverPagerLayoutManager.setOrientation(orientation);
         mCleverRecyclerViewHelper.setOrientation(orientation);
     }
 
@@ -209,7 +990,20 @@ public class CleverRecyclerView extends RecyclerView {
      * @param decelerationDuration 动画时长,默认是280ms
      */
     public void setScrollAnimationDuration(int decelerationDuration) {
-        mCleverLinearLayoutManager.setDecelerationDuration(decelerationDuration);
+        mCleverPagerLayoutManager.setDecelerationDuration(decelerationDuration);
+    }
+
+    /**
+     * 设置长距离跳转的阀值，滚动的页数超过该值时，先无动画地跳到目标页附近再用动画滚动剩下的距离，
+     * 中间的页不会被绑定
+     *
+     * @param jumpThreshold 页数，默认：5，传入0表示始终逐页滚动
+     */
+    public void setJumpThreshold(int jumpThreshold) {
+        if (jumpThreshold < 0) {
+            return;
+        }
+        mCleverPagerLayoutManager.setJumpThreshold(jumpThreshold);
     }
 
     /**
@@ -226,6 +1020,28 @@ public class CleverRecyclerView extends RecyclerView {
         }
     }
 
+    /**
+     * 设置每一侧预先绑定并布局的页数，类似ViewPager#setOffscreenPageLimit(int)
+     * <li>滑动方向上的页会被预先布局，另一侧的页保留在缓存中，不需要重新绑定
+     * <li>每一帧最多多预加载一页，并且会根据绑定耗时控制预加载，避免一帧超时
+     *
+     * @param limit 页数，默认：0，即不预加载
+     */
+    public void setOffscreenPageLimit(int limit) {
+        if (limit < 0) {
+            return;
+        }
+        mCleverPrefetchBudget.setPageLimit(limit);
+        mItemViewCacheSize = DEFAULT_ITEM_VIEW_CACHE_SIZE + limit;
+        if (mTrimStep < CleverMemoryTrimmer.TRIM_STEP_VIEW_CACHE) {
+            setItemViewCacheSize(mItemViewCacheSize);
+        }
+        updateSharedPoolPageDemand();
+        if (getScrollState() == SCROLL_STATE_IDLE) {
+            schedulePrefetch();
+        }
+    }
+
     /**
      * 设置快速滑动时的摩擦因子
      *
@@ -265,7 +1081,52 @@ public class CleverRecyclerView extends RecyclerView {
             throw new IllegalStateException("you must call this method after #CleverRecyclerView.setAdapter(Adapter adapter)");
         }
         mCleverRecyclerViewHelper.setVisibleChildCount(visibleChildCount);
-        mCleverRecyclerViewAdapterProxy.setVisibleChildCount(visibleChildCount);
+        requestLayout();
+        updateSharedPoolPageDemand();
+    }
+
+    /**
+     * 与其他CleverRecyclerView共享RecycledViewPool
+     * <p>开启后，CleverRecyclerView从窗口上移除时会把所有的页面放回缓存池，供其他CleverRecyclerView复用</p>
+     *
+     * @param pool {@link CleverRecycledViewPool}，传入null表示不再共享
+     */
+    public void setSharedRecycledViewPool(CleverRecycledViewPool pool) {
+        if (mSharedRecycledViewPool == pool) {
+            return;
+        }
+        if (mSharedRecycledViewPool != null) {
+            mSharedRecycledViewPool.unregister(this);
+        }
+        mSharedRecycledViewPool = pool;
+        setRecycledViewPool(pool);
+        mCleverPagerLayoutManager.setRecycleChildrenOnDetach(pool != null);
+        updateSharedPoolPageDemand();
+    }
+
+    /**
+     * 在主线程空闲时预先创建指定ViewType的页面并放入共享的缓存池
+     * <p>注意：此方法必须在{@link CleverRecyclerView#setAdapter(Adapter)}
+     * 和{@link CleverRecyclerView#setSharedRecycledViewPool(CleverRecycledViewPool)}之后调用
+     *
+     * @param viewType 目标ViewType
+     * @param count    创建的数量
+     */
+    public void prewarmRecycledViews(int viewType, int count) {
+        if (mCleverRecyclerViewAdapterProxy == null || mSharedRecycledViewPool == null) {
+            throw new IllegalStateException("you must call this method after #CleverRecyclerView.setAdapter(Adapter adapter) and #CleverRecyclerView.setSharedRecycledViewPool(CleverRecycledViewPool pool)");
+        }
+        mSharedRecycledViewPool.prewarm(mCleverRecyclerViewAdapterProxy, this, viewType, count);
+    }
+
+    /**
+     * 单个CleverRecyclerView最多需要缓存的页数：可见的页数 + 滚动时露出的一页 + 两侧预加载的页数
+     */
+    private void updateSharedPoolPageDemand() {
+        if (mSharedRecycledViewPool != null) {
+            int pageDemand = mCleverRecyclerViewHelper.getVisibleChildCount() + 1 + mCleverPrefetchBudget.getPageLimit() * 2;
+            mSharedRecycledViewPool.register(this, pageDemand);
+        }
     }
 
     /**
@@ -275,6 +1136,284 @@ public class CleverRecyclerView extends RecyclerView {
      */
     public void setOnPageChangedListener(OnPageChangedListener onPageChangedListener) {
         mOnPageChangedListener = onPageChangedListener;
+        mOnPageEventListener = onPageChangedListener instanceof OnPageEventListener ? (OnPageEventListener) onPageChangedListener : null;
+        mPageScrolledPending = false;
+        updatePreDrawListener();
+    }
+
+    /**
+     * 在吸附完成、停止滚动之后再执行耗时的工作，例如统计、开始播放视频或者网络请求
+     * <p>当前已经停止时在下一个消息中执行，否则在下一次停止滚动之后依次执行，每个Runnable只执行一次</p>
+     *
+     * @param runnable 需要执行的工作
+     */
+    public void runWhenSettled(Runnable runnable) {
+        if (isSettled()) {
+            post(runnable);
+        } else if (!mSettledRunnables.contains(runnable)) {
+            mSettledRunnables.add(runnable);
+        }
+    }
+
+    /**
+     * 取消通过{@link #runWhenSettled(Runnable)}提交的工作
+     *
+     * @param runnable 需要取消的工作
+     */
+    public void cancelWhenSettled(Runnable runnable) {
+        mSettledRunnables.remove(runnable);
+        removeCallbacks(runnable);
+    }
+
+    /**
+     * 设置页面数据的预加载器，每次目标页发生变化时，会预先加载目标页及其相邻页的数据
+     *
+     * @param pagePreloader {@link CleverPagePreloader}，传入null表示关闭预加载
+     */
+    public void setPagePreloader(CleverPagePreloader pagePreloader) {
+        if (mCleverPagePreloader != null) {
+            mCleverPagePreloader.cancelAll();
+        }
+        mCleverPagePreloader = pagePreloader;
+        CleverRecyclerViewAdapterProxy<?> adapterProxy = mCleverRecyclerViewAdapterProxy;
+        if (pagePreloader != null && adapterProxy != null && mCurrentPosition != NO_POSITION) {
+            pagePreloader.onTargetPageChanged(adapterProxy.getRealPosition(mCurrentPosition), 1, adapterProxy.getRealItemCount(), adapterProxy.isLooping());
+        }
+    }
+
+    /**
+     * 监听预测的目标页，比onPageChanged更早，可以提前开始解码图片或者请求数据
+     * <li>拖动过程中，拖动距离越过翻页阀值时回调下一页，退回阀值以内时回调当前页
+     * <li>松手后目标页确定时再回调一次，此时confidence为1
+     *
+     * @param onPageIntentListener {@link OnPageIntentListener}，传入null表示取消
+     */
+    public void setOnPageIntentListener(OnPageIntentListener onPageIntentListener) {
+        mOnPageIntentListener = onPageIntentListener;
+    }
+
+    /**
+     * 设置页面的变换效果，每一帧对每一个已经布局的页调用一次
+     *
+     * @param pageTransformer {@link PageTransformer}，传入null表示取消，已经应用的变换不会被重置
+     */
+    public void setPageTransformer(PageTransformer pageTransformer) {
+        mPageTransformer = pageTransformer;
+        transformPages();
+    }
+
+    /**
+     * 监听每一次翻页的帧统计，用于线上监控翻页的流畅度
+     * <p>从开始拖动时开始统计，停止滚动后回调，开启后不会额外分配对象</p>
+     *
+     * @param onSwipeMetricsListener {@link OnSwipeMetricsListener}，传入null表示关闭统计
+     */
+    public void setOnSwipeMetricsListener(OnSwipeMetricsListener onSwipeMetricsListener) {
+        mCleverSwipeTracker.setOnSwipeMetricsListener(onSwipeMetricsListener);
+    }
+
+    /**
+     * 开启或关闭Adapter的耗时统计，统计每种ViewType的创建、绑定耗时以及ViewHolder的复用情况
+     *
+     * @param enabled 是否开启，默认：false
+     */
+    public void setAdapterStatsEnabled(boolean enabled) {
+        if (enabled == (mCleverAdapterStats != null)) {
+            return;
+        }
+        mCleverAdapterStats = enabled ? new CleverAdapterStats() : null;
+        if (mCleverRecyclerViewAdapterProxy != null) {
+            mCleverRecyclerViewAdapterProxy.setAdapterStats(mCleverAdapterStats);
+        }
+    }
+
+    /**
+     * 获取Adapter耗时统计的快照
+     *
+     * @return {@link CleverAdapterStats}，没有开启统计时返回null
+     */
+    public CleverAdapterStats getAdapterStatsSnapshot() {
+        return mCleverAdapterStats != null ? mCleverAdapterStats.snapshot() : null;
+    }
+
+    /**
+     * 清空Adapter的耗时统计
+     */
+    public void resetAdapterStats() {
+        if (mCleverAdapterStats != null) {
+            mCleverAdapterStats.reset();
+        }
+    }
+
+    /**
+     * 开启或关闭滚动时的硬件层优化，开始拖动或fling时把当前页及相邻页提升为硬件层，停止滚动后释放
+     * <p>适用于绘制复杂、内容在滚动过程中不变的页面，超过一屏大小的页面不会被提升</p>
+     *
+     * @param enabled 是否开启，默认：false
+     */
+    public void setHardwareLayerPromotionEnabled(boolean enabled) {
+        if (enabled == (mCleverLayerPromoter != null)) {
+            return;
+        }
+        if (enabled) {
+            mCleverLayerPromoter = new CleverLayerPromoter(this);
+            mCleverLayerPromoter.setMaxLayerCount(mMaxHardwareLayerCount);
+        } else {
+            mCleverLayerPromoter.demoteAll();
+            mCleverLayerPromoter = null;
+        }
+    }
+
+    /**
+     * 设置滚动时最多同时存在的硬件层数量
+     *
+     * @param maxLayerCount 默认：3
+     */
+    public void setMaxHardwareLayerCount(int maxLayerCount) {
+        if (maxLayerCount < 0) {
+            return;
+        }
+        mMaxHardwareLayerCount = maxLayerCount;
+        if (mCleverLayerPromoter != null) {
+            mCleverLayerPromoter.setMaxLayerCount(maxLayerCount);
+        }
+    }
+
+    /**
+     * 开启或关闭手势方向的锁定
+     * <p>开启后每次手势只在超过touch slop时判断一次方向：滚动方向上的手势会禁止父View拦截，
+     * 另一个方向上的手势直接交给父View，嵌套在方向垂直的滚动容器中时不会两个都滚动</p>
+     *
+     * @param enabled 是否开启，默认：true
+     */
+    public void setAxisLockEnabled(boolean enabled) {
+        mAxisLockEnabled = enabled;
+    }
+
+    /**
+     * 开启或关闭内存压力下的缓存释放
+     * <p>内存紧张时依次释放预加载的页、子View缓存以及不在屏幕上的CleverRecyclerView的RecycledViewPool，
+     * 下一次拖动时恢复原来的缓存大小</p>
+     *
+     * @param enabled 是否开启，默认：false
+     */
+    public void setMemoryTrimEnabled(boolean enabled) {
+        if (mMemoryTrimEnabled == enabled) {
+            return;
+        }
+        mMemoryTrimEnabled = enabled;
+        CleverMemoryTrimmer memoryTrimmer = CleverMemoryTrimmer.getInstance(getContext());
+        if (enabled) {
+            memoryTrimmer.register(this);
+        } else {
+            memoryTrimmer.unregister(this);
+            restoreTrimmedCaches();
+        }
+    }
+
+    /**
+     * 由{@link CleverMemoryTrimmer}调用，每一步只执行一次，RecycledViewPool由CleverMemoryTrimmer统一清空
+     *
+     * @param trimStep 释放到哪一步
+     */
+    void trimMemory(int trimStep) {
+        if (trimStep <= mTrimStep) {
+            return;
+        }
+        if (mTrimStep < CleverMemoryTrimmer.TRIM_STEP_PREFETCH) {
+            removeCallbacks(mPrefetchRunnable);
+            mPrefetchLayoutPending = false;
+            if (mCleverPrefetchBudget.getGrantedPageCount() > 0) {
+                mCleverPrefetchBudget.resetGrantedPageCount();
+                requestLayout();
+            }
+        }
+        if (trimStep >= CleverMemoryTrimmer.TRIM_STEP_VIEW_CACHE && mTrimStep < CleverMemoryTrimmer.TRIM_STEP_VIEW_CACHE) {
+            setItemViewCacheSize(0);
+        }
+        mTrimStep = trimStep;
+    }
+
+    private void restoreTrimmedCaches() {
+        if (mTrimStep == CleverMemoryTrimmer.TRIM_STEP_NONE) {
+            return;
+        }
+        if (mTrimStep >= CleverMemoryTrimmer.TRIM_STEP_VIEW_CACHE) {
+            setItemViewCacheSize(mItemViewCacheSize);
+        }
+        mTrimStep = CleverMemoryTrimmer.TRIM_STEP_NONE;
+    }
+
+    /**
+     * 开始自动翻页，最后一页之后回到第一页，循环模式下一直往后翻
+     * <p>所有CleverRecyclerView共用一个定时器，触摸、拖动、移出屏幕、不可见、窗口失去焦点或者从窗口上移除时自动暂停，恢复后重新计时</p>
+     *
+     * @param intervalMillis 翻页间隔(ms)
+     */
+    public void startAutoAdvance(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            return;
+        }
+        mAutoAdvanceIntervalMillis = intervalMillis;
+        if (mAutoAdvanceRegistered) {
+            //间隔变化，重新计时
+            CleverAutoAdvanceScheduler.getInstance().register(this, intervalMillis);
+        } else {
+            updateAutoAdvanceRegistration();
+        }
+    }
+
+    /**
+     * 停止自动翻页
+     */
+    public void stopAutoAdvance() {
+        mAutoAdvanceIntervalMillis = 0;
+        updateAutoAdvanceRegistration();
+    }
+
+    /**
+     * 只有在窗口上可见并且窗口有焦点时才注册到调度器，其余时间不会被定时唤醒，重新注册时从头计时
+     */
+    private void updateAutoAdvanceRegistration() {
+        boolean active = mAutoAdvanceIntervalMillis > 0 && getWindowToken() != null && isShown()
+                && getWindowVisibility() == VISIBLE && hasWindowFocus();
+        if (active == mAutoAdvanceRegistered) {
+            return;
+        }
+        mAutoAdvanceRegistered = active;
+        if (active) {
+            CleverAutoAdvanceScheduler.getInstance().register(this, mAutoAdvanceIntervalMillis);
+        } else {
+            CleverAutoAdvanceScheduler.getInstance().unregister(this);
+        }
+    }
+
+    private void restartAutoAdvance() {
+        if (mAutoAdvanceRegistered) {
+            CleverAutoAdvanceScheduler.getInstance().restart(this);
+        }
+    }
+
+    /**
+     * 由{@link CleverAutoAdvanceScheduler}在翻页之前调用
+     */
+    boolean canAutoAdvance() {
+        CleverRecyclerViewAdapterProxy<?> adapterProxy = mCleverRecyclerViewAdapterProxy;
+        //可见性和焦点已经在注册时判断，这里只需要排除被滚出屏幕的情况
+        return !mTouching && getScrollState() == SCROLL_STATE_IDLE && getLocalVisibleRect(mAutoAdvanceVisibleRect)
+                && adapterProxy != null && adapterProxy.getRealItemCount() > 1;
+    }
+
+    /**
+     * 由{@link CleverAutoAdvanceScheduler}调用，翻到下一页
+     */
+    void autoAdvance() {
+        if (mCleverRecyclerViewAdapterProxy.isLooping()) {
+            smoothScrollToPage(mCurrentPosition + 1);
+            return;
+        }
+        int position = getCurrentPosition() + 1;
+        smoothScrollToPage(position < mCleverRecyclerViewAdapterProxy.getItemCount() ? position : 0);
     }
 
     /**
@@ -284,4 +1423,58 @@ public class CleverRecyclerView extends RecyclerView {
         void onPageChanged(int currentPosition);
     }
 
+    /**
+     * 更完整的页面事件回调，同样通过{@link #setOnPageChangedListener(OnPageChangedListener)}设置
+     * <p>onPageChanged在目标页确定时（动画开始前）回调，耗时的工作请放到onPageSettled中</p>
+     */
+    public interface OnPageEventListener extends OnPageChangedListener {
+        /**
+         * 滚动过程中每一帧最多回调一次，在绘制之前回调
+         *
+         * @param position             左侧（上方）页面的位置，循环模式下是真实数据中的位置
+         * @param positionOffset       往下一页方向的偏移，[0, 1)
+         * @param positionOffsetPixels 往下一页方向的偏移(px)
+         */
+        void onPageScrolled(int position, float positionOffset, int positionOffsetPixels);
+
+        /**
+         * 吸附完成并且停止滚动之后回调
+         *
+         * @param position 当前位置，循环模式下是真实数据中的位置
+         */
+        void onPageSettled(int position);
+    }
+
+    /**
+     * 预测目标页的回调
+     */
+    public interface OnPageIntentListener {
+        /**
+         * @param targetPosition 预测的目标页，循环模式下是真实数据中的位置
+         * @param confidence     可信度，[0, 1]：拖动过程中是往目标页方向已经完成的比例，松手后为1
+         */
+        void onPageIntent(int targetPosition, float confidence);
+    }
+
+    /**
+     * 页面变换，与ViewPager.PageTransformer的用法一致
+     */
+    public interface PageTransformer {
+        /**
+         * @param page     页面的View
+         * @param position 页面相对于当前吸附位置的偏移，以页为单位：0表示正好在吸附位置，-1表示在前一页的位置，1表示在后一页的位置
+         */
+        void transformPage(View page, float position);
+    }
+
+    /**
+     * 翻页帧统计的回调
+     */
+    public interface OnSwipeMetricsListener {
+        /**
+         * @param metrics 本次翻页的统计数据，该实例会被重复使用
+         */
+        void onSwipeMetrics(CleverSwipeMetrics metrics);
+    }
+
 }
@@ -16,57 +16,180 @@
 package io.github.luckyandyzhang.cleverrecyclerview;
 
 import android.support.v7.widget.RecyclerView;
-import android.view.View;
 import android.view.ViewGroup;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 
 /**
- * 定义了子View的布局的RecyclerView.Adapter扩展类
+ * 包装用户Adapter的RecyclerView.Adapter扩展类，负责循环模式下的位置转换以及耗时统计
+ * <p>子View的尺寸由{@link CleverPagerLayoutManager}在测量时决定，这里不需要修改LayoutParams</p>
  *
  * @author andy
  */
 class CleverRecyclerViewAdapterProxy<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
-    private CleverRecyclerView mCleverRecyclerView;
+    //循环模式下虚拟位置数量的上限，实际数量是真实数量的整数倍
+    private static final int MAX_LOOP_ITEM_COUNT = 1 << 16;
+    private static final int MIN_LOOP_MULTIPLIER = 3;
+
+    private CleverPrefetchBudget mPrefetchBudget;
+    private CleverAdapterStats mAdapterStats;
     private RecyclerView.Adapter<VH> mAdapter;
-    private int mVisibleChildCount;
 
-    public CleverRecyclerViewAdapterProxy(CleverRecyclerView cleverRecyclerView, RecyclerView.Adapter<VH> adapter) {
+    private boolean mLooping;
+    private int mLoopItemCount;
+    private int mLoopMultiplier;
+    //已经绑定、还没有回收的ViewHolder，包括显示中的和缓存中的，只在循环模式下记录，用来找到需要局部刷新的虚拟位置
+    private final Set<VH> mBoundHolders = Collections.newSetFromMap(new IdentityHashMap<VH, Boolean>());
+
+    //将被代理的Adapter的数据变化转发给RecyclerView，循环模式下需要转换成虚拟位置
+    private final RecyclerView.AdapterDataObserver mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            if (mLooping) {
+                notifyDataSetChanged();
+            } else {
+                notifyItemRangeChanged(positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            if (mLooping) {
+                notifyLoopItemRangeChanged(positionStart, itemCount, payload);
+            } else {
+                notifyItemRangeChanged(positionStart, itemCount, payload);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (mLooping) {
+                notifyDataSetChanged();
+            } else {
+                notifyItemRangeInserted(positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (mLooping) {
+                notifyDataSetChanged();
+            } else {
+                notifyItemRangeRemoved(positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (mLooping || itemCount != 1) {
+                notifyDataSetChanged();
+            } else {
+                notifyItemMoved(fromPosition, toPosition);
+            }
+        }
+    };
+
+    public CleverRecyclerViewAdapterProxy(CleverPrefetchBudget prefetchBudget, RecyclerView.Adapter<VH> adapter) {
         mAdapter = adapter;
-        mVisibleChildCount = 1;
-        mCleverRecyclerView = cleverRecyclerView;
+        mPrefetchBudget = prefetchBudget;
         setHasStableIds(mAdapter.hasStableIds());
     }
 
     @Override
     public VH onCreateViewHolder(ViewGroup parent, int viewType) {
-        return mAdapter.onCreateViewHolder(parent, viewType);
+        if (mAdapterStats == null) {
+            return mAdapter.onCreateViewHolder(parent, viewType);
+        }
+        long start = System.nanoTime();
+        VH holder = mAdapter.onCreateViewHolder(parent, viewType);
+        mAdapterStats.onCreateViewHolder(holder, viewType, System.nanoTime() - start);
+        return holder;
     }
 
     @Override
     public void registerAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
+        if (!hasObservers()) {
+            mAdapter.registerAdapterDataObserver(mAdapterDataObserver);
+        }
         super.registerAdapterDataObserver(observer);
-        mAdapter.registerAdapterDataObserver(observer);
     }
 
     @Override
     public void unregisterAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
         super.unregisterAdapterDataObserver(observer);
-        mAdapter.unregisterAdapterDataObserver(observer);
+        if (!hasObservers()) {
+            mAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
+        }
     }
 
     @Override
     public void onBindViewHolder(VH holder, int position) {
-        mAdapter.onBindViewHolder(holder, position);
-        View itemView = holder.itemView;
-        ViewGroup.LayoutParams layoutParams = itemView.getLayoutParams() == null ? new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT) : itemView.getLayoutParams();
-        if (mCleverRecyclerView.getLayoutManager().canScrollHorizontally()) {
-            layoutParams.width = (mCleverRecyclerView.getWidth() - mCleverRecyclerView.getPaddingLeft() - mCleverRecyclerView.getPaddingRight()) / mVisibleChildCount;
+        onBindViewHolder(holder, position, Collections.<Object>emptyList());
+    }
+
+    /**
+     * 绑定统一交给被代理Adapter带有payload的方法，payload为空时由它自己决定如何完整绑定
+     */
+    @Override
+    public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+        if (mLooping) {
+            mBoundHolders.add(holder);
+        }
+        if (mPrefetchBudget.isEnabled() || mAdapterStats != null) {
+            long start = System.nanoTime();
+            mAdapter.onBindViewHolder(holder, getRealPosition(position), payloads);
+            onBindFinished(holder, position, System.nanoTime() - start, !payloads.isEmpty());
+        } else {
+            mAdapter.onBindViewHolder(holder, getRealPosition(position), payloads);
         }
-        if (mCleverRecyclerView.getLayoutManager().canScrollVertically()) {
-            layoutParams.width = (mCleverRecyclerView.getWidth() - mCleverRecyclerView.getPaddingLeft() - mCleverRecyclerView.getPaddingRight());
-            layoutParams.height = (mCleverRecyclerView.getHeight() - mCleverRecyclerView.getPaddingTop() - mCleverRecyclerView.getPaddingBottom()) / mVisibleChildCount;
+    }
+
+    @Override
+    public void onViewRecycled(VH holder) {
+        mBoundHolders.remove(holder);
+        if (mAdapterStats != null) {
+            mAdapterStats.onViewRecycled(holder);
+        }
+        mAdapter.onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(VH holder) {
+        boolean recycle = mAdapter.onFailedToRecycleView(holder);
+        if (!recycle) {
+            //不回收的ViewHolder会被直接丢弃
+            mBoundHolders.remove(holder);
         }
-        itemView.setLayoutParams(layoutParams);
+        return recycle;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(VH holder) {
+        mAdapter.onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(VH holder) {
+        mAdapter.onViewDetachedFromWindow(holder);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        mAdapter.onAttachedToRecyclerView(recyclerView);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        mAdapter.onDetachedFromRecyclerView(recyclerView);
     }
 
     @Override
@@ -77,25 +200,168 @@ class CleverRecyclerViewAdapterProxy<VH extends RecyclerView.ViewHolder> extends
 
     @Override
     public int getItemCount() {
+        if (mLooping) {
+            return mLoopItemCount * mLoopMultiplier;
+        }
         return mAdapter.getItemCount();
     }
 
     @Override
     public int getItemViewType(int position) {
-        return mAdapter.getItemViewType(position);
+        return mAdapter.getItemViewType(getRealPosition(position));
     }
 
+    /**
+     * 循环模式下同一项在不同圈中的虚拟位置是不同的ViewHolder，id需要按圈区分
+     * <p>被代理Adapter的id可能是任意的64位值，和圈数组合起来无法保证不冲突，所以循环模式下直接用
+     * (圈数, 真实位置)对应的虚拟位置作为id。循环模式下除了带payload的局部刷新，数据变化都会转换成
+     * notifyDataSetChanged，id不需要跟随数据项移动</p>
+     */
     @Override
     public long getItemId(int position) {
-        return mAdapter.getItemId(position);
+        if (mLooping && mLoopItemCount > 0 && position >= 0) {
+            return position;
+        }
+        return mAdapter.getItemId(getRealPosition(position));
     }
 
     public RecyclerView.Adapter<VH> getAdapter() {
         return mAdapter;
     }
 
-    public void setVisibleChildCount(int visibleChildCount) {
-        mVisibleChildCount = visibleChildCount;
+    /**
+     * 设置创建和绑定耗时的统计
+     *
+     * @param adapterStats 传入null表示关闭统计
+     */
+    public void setAdapterStats(CleverAdapterStats adapterStats) {
+        mAdapterStats = adapterStats;
+    }
+
+    private void onBindFinished(VH holder, int position, long bindNanos, boolean partial) {
+        if (mPrefetchBudget.isEnabled()) {
+            mPrefetchBudget.onBind(bindNanos);
+        }
+        if (mAdapterStats != null) {
+            mAdapterStats.onBindViewHolder(holder, position, bindNanos, partial);
+        }
+    }
+
+    /**
+     * 循环模式下把真实位置的局部刷新转换成所有已经绑定的虚拟位置，保留payload
+     * <p>没有绑定过的虚拟位置在绑定时会拿到最新的数据，不需要通知</p>
+     */
+    private void notifyLoopItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        if (mLoopItemCount == 0) {
+            return;
+        }
+        int positionEnd = positionStart + itemCount;
+        //通知时不会回调onViewRecycled，可以直接遍历
+        for (VH holder : mBoundHolders) {
+            int position = holder.getLayoutPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+            int realPosition = getRealPosition(position);
+            if (realPosition >= positionStart && realPosition < positionEnd) {
+                notifyItemChanged(position, payload);
+            }
+        }
+    }
+
+    /**
+     * 设置是否循环
+     * <p>循环模式下，RecyclerView看到的是真实数量整数倍的虚拟位置，通过取模映射到真实的位置</p>
+     *
+     * @param looping 是否循环
+     */
+    public void setLooping(boolean looping) {
+        if (mLooping == looping) {
+            return;
+        }
+        mLooping = looping;
+        if (!looping) {
+            mBoundHolders.clear();
+        }
+        syncLoopItemCount();
+        notifyDataSetChanged();
+    }
+
+    public boolean isLooping() {
+        return mLooping;
+    }
+
+    /**
+     * 被代理的Adapter的数量发生变化后，重新建立虚拟位置的映射
+     * <p>在调用之前，{@link #getRealPosition(int)}仍然使用变化之前的数量</p>
+     */
+    public void syncLoopItemCount() {
+        mLoopItemCount = mAdapter.getItemCount();
+        mLoopMultiplier = mLoopItemCount == 0 ? 0 : Math.max(MIN_LOOP_MULTIPLIER, MAX_LOOP_ITEM_COUNT / mLoopItemCount);
+    }
+
+    /**
+     * 获取真实数据的数量
+     *
+     * @return 数量
+     */
+    public int getRealItemCount() {
+        return mLooping ? mLoopItemCount : mAdapter.getItemCount();
+    }
+
+    /**
+     * 将虚拟位置转换成真实的位置
+     *
+     * @param position 虚拟位置
+     * @return 真实的位置
+     */
+    public int getRealPosition(int position) {
+        if (!mLooping || mLoopItemCount == 0 || position < 0) {
+            return position;
+        }
+        return position % mLoopItemCount;
+    }
+
+    /**
+     * 将真实的位置转换成离参照位置最近的虚拟位置
+     *
+     * @param realPosition      真实的位置
+     * @param referencePosition 参照的虚拟位置
+     * @return 虚拟位置
+     */
+    public int getVirtualPosition(int realPosition, int referencePosition) {
+        if (!mLooping || mLoopItemCount == 0 || realPosition < 0) {
+            return realPosition;
+        }
+        if (referencePosition < 0 || referencePosition >= getItemCount()) {
+            referencePosition = getLoopCenterPosition();
+        }
+        int position = referencePosition - referencePosition % mLoopItemCount + realPosition % mLoopItemCount;
+        if (position - referencePosition > mLoopItemCount / 2 && position - mLoopItemCount >= 0) {
+            position -= mLoopItemCount;
+        } else if (referencePosition - position > mLoopItemCount / 2 && position + mLoopItemCount < getItemCount()) {
+            position += mLoopItemCount;
+        }
+        return position;
+    }
+
+    /**
+     * 获取虚拟位置的中心，对应真实位置0
+     *
+     * @return 中心的虚拟位置
+     */
+    public int getLoopCenterPosition() {
+        return mLoopMultiplier / 2 * mLoopItemCount;
+    }
+
+    /**
+     * 当前位置是否离虚拟位置的两端太近，需要重新回到中心
+     *
+     * @param position 当前的虚拟位置
+     * @return true or false
+     */
+    public boolean needRecenter(int position) {
+        return mLooping && mLoopItemCount > 0 && Math.abs(position - getLoopCenterPosition()) > getItemCount() / 4;
     }
 
 }
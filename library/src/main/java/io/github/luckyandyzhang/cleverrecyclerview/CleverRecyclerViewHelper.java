@@ -15,9 +15,11 @@
  */
 package io.github.luckyandyzhang.cleverrecyclerview;
 
+import android.hardware.SensorManager;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
+import android.view.ViewConfiguration;
 
 
 /**
@@ -29,6 +31,10 @@ class CleverRecyclerViewHelper {
     private static final float DEFAULT_SLIDING_THRESHOLD = 0.22f;
     private static final int DEFAULT_VISIBLE_CHILD_COUNT = 1;
 
+    //以下常量与OverScroller的样条减速曲线保持一致
+    private static final float INFLEXION = 0.35f;
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+
     private RecyclerView mRecyclerView;
     private float mSlidingThreshold;
     private int mVisibleChildCount;
@@ -37,30 +43,49 @@ class CleverRecyclerViewHelper {
     private float mHorizontalSlidingThreshold;
     private float mVerticalSlidingThreshold;
 
-    private int mItemCenterPositionX;
-    private int mItemCenterPositionY;
+    private int mScrollOffset;
+
+    private int mPageWidth;
+    private int mPageHeight;
+    private boolean mPageSizeInvalid;
+
+    private final float mPhysicalCoeff;
+    private final float mScrollFriction;
 
     public CleverRecyclerViewHelper(RecyclerView recyclerView) {
         mSlidingThreshold = DEFAULT_SLIDING_THRESHOLD;
         mVisibleChildCount = DEFAULT_VISIBLE_CHILD_COUNT;
         mRecyclerView = recyclerView;
+        mPageSizeInvalid = true;
+
+        float ppi = recyclerView.getContext().getResources().getDisplayMetrics().density * 160.0f;
+        mPhysicalCoeff = SensorManager.GRAVITY_EARTH * 39.37f * ppi * 0.84f;
+        mScrollFriction = ViewConfiguration.getScrollFriction();
     }
 
     private void initSlidingThreshold() {
-        int itemWidth = (mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight()) / mVisibleChildCount;
-        int itemHeight = (mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight()) / mVisibleChildCount;
+        int itemWidth = getPageWidth();
+        int itemHeight = getPageHeight();
         mHorizontalSlidingThreshold = mVisibleChildCount == 1 ? itemWidth * mSlidingThreshold : itemWidth * 0.5f;
         mVerticalSlidingThreshold = mVisibleChildCount == 1 ? itemHeight * mSlidingThreshold : itemHeight * 0.5f;
     }
 
-    private void initCenterParentPosition() {
-        mItemCenterPositionX = mRecyclerView.getLeft() + mRecyclerView.getWidth() / (mVisibleChildCount * 2);
-        mItemCenterPositionY = mRecyclerView.getTop() + mRecyclerView.getHeight() / (mVisibleChildCount * 2);
+    private void initPageSize() {
+        int contentWidth = mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight();
+        int contentHeight = mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom();
+        if (mOrientation == LinearLayoutManager.VERTICAL) {
+            mPageWidth = contentWidth;
+            mPageHeight = contentHeight / mVisibleChildCount;
+        } else {
+            mPageWidth = contentWidth / mVisibleChildCount;
+            mPageHeight = contentHeight;
+        }
+        mPageSizeInvalid = false;
     }
 
     public void updateConfiguration() {
+        mPageSizeInvalid = true;
         initSlidingThreshold();
-        initCenterParentPosition();
     }
 
     public void setSlidingThreshold(float slidingThreshold) {
@@ -75,7 +100,8 @@ class CleverRecyclerViewHelper {
      */
     public void setVisibleChildCount(int visibleChildCount) {
         mVisibleChildCount = visibleChildCount;
-        initCenterParentPosition();
+        mPageSizeInvalid = true;
+        initSlidingThreshold();
     }
 
     public int getVisibleChildCount() {
@@ -83,42 +109,110 @@ class CleverRecyclerViewHelper {
     }
 
     public void setOrientation(int orientation) {
-        mOrientation = orientation;
+        if (mOrientation != orientation) {
+            mOrientation = orientation;
+            mPageSizeInvalid = true;
+            initSlidingThreshold();
+        }
+    }
+
+    public int getOrientation() {
+        return mOrientation;
     }
 
     /**
-     * 获取当前第一个可见的View
+     * 获取一页中单个子View的宽度，结果会被缓存，直到尺寸、布局方向或者visibleChildCount发生变化
      *
-     * @return 返回当前第一个可见的View
+     * @return 子View的宽度
      */
-    public View getCurrentFirstVisibleChild() {
-        int childCount = mRecyclerView.getChildCount();
-        if (childCount > 0) {
-            for (int i = 0; i < childCount; i++) {
-                View child = mRecyclerView.getChildAt(i);
-                if (isChildVisible(child)) {
-                    return child;
-                }
-            }
+    public int getPageWidth() {
+        if (mPageSizeInvalid) {
+            initPageSize();
         }
-        return null;
+        return mPageWidth;
     }
 
     /**
-     * 判断指定的View是否在可见范围内
+     * 获取一页中单个子View的高度，结果会被缓存，直到尺寸、布局方向或者visibleChildCount发生变化
      *
-     * @param child 指定view
-     * @return true or false
+     * @return 子View的高度
      */
-    private boolean isChildVisible(View child) {
-        switch (mOrientation) {
-            case LinearLayoutManager.HORIZONTAL:
-                return child.getLeft() <= mItemCenterPositionX && child.getRight() >= mItemCenterPositionX;
-            case LinearLayoutManager.VERTICAL:
-                return child.getTop() <= mItemCenterPositionY && child.getBottom() >= mItemCenterPositionY;
-            default:
-                return false;
+    public int getPageHeight() {
+        if (mPageSizeInvalid) {
+            initPageSize();
         }
+        return mPageHeight;
+    }
+
+    /**
+     * 根据滚动的增量更新滚动距离
+     *
+     * @param dx 横向增量
+     * @param dy 纵向增量
+     */
+    public void onScrolled(int dx, int dy) {
+        mScrollOffset += mOrientation == LinearLayoutManager.VERTICAL ? dy : dx;
+    }
+
+    /**
+     * 直接设置滚动距离
+     *
+     * @param scrollOffset 滚动距离
+     */
+    public void setScrollOffset(int scrollOffset) {
+        mScrollOffset = scrollOffset;
+    }
+
+    /**
+     * 布局完成后，以一个已经布局的子View为参照校正滚动距离
+     *
+     * @param position 子View的位置
+     * @param child    子View
+     */
+    public void syncScrollOffset(int position, View child) {
+        int paddingStart = mOrientation == LinearLayoutManager.VERTICAL ? mRecyclerView.getPaddingTop() : mRecyclerView.getPaddingLeft();
+        mScrollOffset = position * getPageSize() - (getChildCurrentPosition(child) - paddingStart);
+    }
+
+    /**
+     * 获取相对于第一个子View起始位置的滚动距离
+     *
+     * @return 滚动距离
+     */
+    public int getScrollOffset() {
+        return mScrollOffset;
+    }
+
+    /**
+     * 获取当前页的位置，即覆盖了第一个子View区域中心点的子View的位置
+     *
+     * @return 当前页的位置
+     */
+    public int getCurrentPage() {
+        int pageSize = getPageSize();
+        if (pageSize <= 0) {
+            return 0;
+        }
+        int offset = mScrollOffset + pageSize / 2;
+        return offset >= 0 ? offset / pageSize : (offset + 1) / pageSize - 1;
+    }
+
+    /**
+     * 获取当前页相对于吸附位置的偏移，往下一页方向为正
+     *
+     * @return 偏移距离
+     */
+    public int getPageOffset() {
+        return mScrollOffset - getCurrentPage() * getPageSize();
+    }
+
+    /**
+     * 获取滚动方向上单个子View的尺寸
+     *
+     * @return 子View的尺寸
+     */
+    public int getPageSize() {
+        return mOrientation == LinearLayoutManager.VERTICAL ? getPageHeight() : getPageWidth();
     }
 
     /**
@@ -141,22 +235,59 @@ class CleverRecyclerViewHelper {
 
     /**
      * 根据速度计算出该滑动动作需要偏移多少个view
+     * <p>按照OverScroller的减速曲线预测fling最终停下的位置，再换算成页数</p>
      *
-     * @param velocityX 横向速度
-     * @param velocityY 纵向速度
+     * @param velocityX         横向速度
+     * @param velocityY         纵向速度
+     * @param scrolledDistance 松手前已经拖动的距离，往下一页方向为正
      * @return 需要偏移的个数
      */
-    public int getFlingCountWithVelocity(int velocityX, int velocityY) {
+    public int getFlingCountWithVelocity(int velocityX, int velocityY, int scrolledDistance) {
+        int velocity;
+        int pageSize;
         switch (mOrientation) {
             case LinearLayoutManager.HORIZONTAL:
-                int childWidth = (mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight()) / mVisibleChildCount;
-                return velocityX / childWidth;
+                velocity = velocityX;
+                pageSize = getPageWidth();
+                break;
             case LinearLayoutManager.VERTICAL:
-                int childHeight = (mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom()) / mVisibleChildCount;
-                return velocityY / childHeight;
+                velocity = velocityY;
+                pageSize = getPageHeight();
+                break;
             default:
                 return 0;
         }
+        if (velocity == 0 || pageSize <= 0) {
+            return 0;
+        }
+        double flingDistance = getSplineFlingDistance(velocity);
+        double totalDistance = velocity > 0 ? scrolledDistance + flingDistance : scrolledDistance - flingDistance;
+        int flingCount = (int) Math.round(totalDistance / pageSize);
+        if (flingCount == 0) {
+            //预测的距离不足半页，但拖动距离已经超过阀值，并且fling的方向与拖动方向一致时，仍然翻一页
+            float draggingDistance = -scrolledDistance;
+            if (velocity > 0 && (isLeftScrollTriggered(draggingDistance) || isUpScrollTriggered(draggingDistance))) {
+                flingCount = 1;
+            } else if (velocity < 0 && (isRightScrollTriggered(draggingDistance) || isDownScrollTriggered(draggingDistance))) {
+                flingCount = -1;
+            }
+        }
+        return flingCount;
+    }
+
+    /**
+     * 根据初速度计算fling的滑行距离，与OverScroller的计算方式一致
+     *
+     * @param velocity 初速度
+     * @return 滑行距离(px)
+     */
+    public double getSplineFlingDistance(int velocity) {
+        if (velocity == 0) {
+            return 0;
+        }
+        double deceleration = Math.log(INFLEXION * Math.abs(velocity) / (mScrollFriction * mPhysicalCoeff));
+        double decelMinusOne = DECELERATION_RATE - 1.0;
+        return mScrollFriction * mPhysicalCoeff * Math.exp(DECELERATION_RATE / decelMinusOne * deceleration);
     }
 
     /**
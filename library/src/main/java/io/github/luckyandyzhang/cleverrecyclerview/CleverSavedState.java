@@ -21,34 +21,71 @@ import android.view.View;
 
 /**
  * 用于保存CleverRecyclerView的某些状态
+ * <p>只保存当前页的位置、id、页内偏移以及布局配置，布局配置压缩在一个int中</p>
  *
  * @author andy
  */
 class CleverSavedState extends View.BaseSavedState {
-    private int mLastScrollPosition;
+    private int mPosition;
+    private long mItemId;
+    private int mPageOffset;
+    //visibleChildCount << 1 | orientation
+    private int mConfig;
 
     public CleverSavedState(Parcel source) {
         super(source);
-        mLastScrollPosition = source.readInt();
+        mPosition = source.readInt();
+        mItemId = source.readLong();
+        mPageOffset = source.readInt();
+        mConfig = source.readInt();
     }
 
-    public CleverSavedState(Parcelable superState, int lastScrollPostion) {
+    public CleverSavedState(Parcelable superState, int position, long itemId, int pageOffset, int visibleChildCount, int orientation) {
         super(superState);
-        this.mLastScrollPosition = lastScrollPostion;
+        mPosition = position;
+        mItemId = itemId;
+        mPageOffset = pageOffset;
+        mConfig = packConfig(visibleChildCount, orientation);
     }
 
-    public int getLastScrollPostion() {
-        return mLastScrollPosition;
+    public CleverSavedState(Parcelable superState, CleverSavedState other) {
+        super(superState);
+        mPosition = other.mPosition;
+        mItemId = other.mItemId;
+        mPageOffset = other.mPageOffset;
+        mConfig = other.mConfig;
+    }
+
+    public int getPosition() {
+        return mPosition;
+    }
+
+    public long getItemId() {
+        return mItemId;
+    }
+
+    public int getPageOffset() {
+        return mPageOffset;
+    }
+
+    /**
+     * 判断保存时的布局配置是否与当前一致，不一致时页内偏移没有意义
+     */
+    public boolean isSameConfig(int visibleChildCount, int orientation) {
+        return mConfig == packConfig(visibleChildCount, orientation);
     }
 
-    public void setLastScrollPosition(int lastScrollPosition) {
-        mLastScrollPosition = lastScrollPosition;
+    private static int packConfig(int visibleChildCount, int orientation) {
+        return visibleChildCount << 1 | (orientation & 1);
     }
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
         super.writeToParcel(dest, flags);
-        dest.writeInt(mLastScrollPosition);
+        dest.writeInt(mPosition);
+        dest.writeLong(mItemId);
+        dest.writeInt(mPageOffset);
+        dest.writeInt(mConfig);
     }
 
     public static final Creator<CleverSavedState> CREATOR = new Creator<CleverSavedState>() {
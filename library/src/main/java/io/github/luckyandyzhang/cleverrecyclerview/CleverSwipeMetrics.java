@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+
+/**
+ * 一次翻页（从开始拖动到停止滚动）的帧统计
+ * <p>同一个实例会被重复使用，如果需要在回调之外使用这些数据，请自行复制</p>
+ *
+ * @author andy
+ */
+public class CleverSwipeMetrics {
+    int mStartPosition;
+    int mEndPosition;
+    int mFrameCount;
+    int mDroppedFrameCount;
+    long mWorstFrameNanos;
+    long mTotalTimeNanos;
+    long mSettleTimeNanos;
+    boolean mFling;
+
+    CleverSwipeMetrics() {
+    }
+
+    void reset() {
+        mStartPosition = 0;
+        mEndPosition = 0;
+        mFrameCount = 0;
+        mDroppedFrameCount = 0;
+        mWorstFrameNanos = 0;
+        mTotalTimeNanos = 0;
+        mSettleTimeNanos = 0;
+        mFling = false;
+    }
+
+    /**
+     * @return 开始拖动时所在的页
+     */
+    public int getStartPosition() {
+        return mStartPosition;
+    }
+
+    /**
+     * @return 停止滚动后所在的页
+     */
+    public int getEndPosition() {
+        return mEndPosition;
+    }
+
+    /**
+     * @return 从开始拖动到停止滚动所经过的帧数
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return 掉帧数，即相邻两帧的间隔超出屏幕刷新间隔的部分折算成的帧数之和
+     */
+    public int getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+
+    /**
+     * @return 最长的一帧的耗时(ns)
+     */
+    public long getWorstFrameNanos() {
+        return mWorstFrameNanos;
+    }
+
+    /**
+     * @return 从开始拖动到停止滚动的总耗时(ns)
+     */
+    public long getTotalTimeNanos() {
+        return mTotalTimeNanos;
+    }
+
+    /**
+     * @return 从松手到停止滚动的耗时(ns)
+     */
+    public long getSettleTimeNanos() {
+        return mSettleTimeNanos;
+    }
+
+    /**
+     * @return true：由fling触发翻页，false：松手后根据拖动距离和阀值吸附
+     */
+    public boolean isFling() {
+        return mFling;
+    }
+}
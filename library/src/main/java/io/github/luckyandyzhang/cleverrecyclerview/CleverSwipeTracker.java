@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.view.Choreographer;
+
+
+/**
+ * 通过Choreographer记录每一次翻页过程中的帧间隔
+ * <p>统计数据保存在同一个{@link CleverSwipeMetrics}实例中，开启后不会分配对象</p>
+ *
+ * @author andy
+ */
+class CleverSwipeTracker implements Choreographer.FrameCallback {
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    private final CleverSwipeMetrics mMetrics;
+    private CleverRecyclerView.OnSwipeMetricsListener mOnSwipeMetricsListener;
+    private long mFrameIntervalNanos;
+
+    private boolean mTracking;
+    private long mStartTimeNanos;
+    private long mReleaseTimeNanos;
+    private long mLastFrameTimeNanos;
+
+    public CleverSwipeTracker() {
+        mMetrics = new CleverSwipeMetrics();
+        mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    public void setOnSwipeMetricsListener(CleverRecyclerView.OnSwipeMetricsListener onSwipeMetricsListener) {
+        mOnSwipeMetricsListener = onSwipeMetricsListener;
+        if (onSwipeMetricsListener == null) {
+            stop();
+        }
+    }
+
+    public void setFrameIntervalNanos(long frameIntervalNanos) {
+        mFrameIntervalNanos = frameIntervalNanos;
+    }
+
+    /**
+     * SCROLL_STATE_DRAGGING时调用
+     *
+     * @param position 开始拖动时所在的页
+     */
+    public void onDragStarted(int position) {
+        if (mOnSwipeMetricsListener == null) {
+            return;
+        }
+        //上一次翻页还没有停下来就又开始拖动，直接开始新的统计
+        stop();
+        mMetrics.reset();
+        mMetrics.mStartPosition = position;
+        mTracking = true;
+        mStartTimeNanos = System.nanoTime();
+        mReleaseTimeNanos = 0;
+        mLastFrameTimeNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * 松手后开始吸附时调用
+     *
+     * @param fling 是否由fling触发
+     */
+    public void onReleased(boolean fling) {
+        if (mTracking && mReleaseTimeNanos == 0) {
+            mReleaseTimeNanos = System.nanoTime();
+            mMetrics.mFling = fling;
+        }
+    }
+
+    /**
+     * 吸附完成，停止滚动时调用
+     *
+     * @param position 停止滚动后所在的页
+     */
+    public void onSettled(int position) {
+        if (!mTracking) {
+            return;
+        }
+        long now = System.nanoTime();
+        stop();
+        mMetrics.mEndPosition = position;
+        mMetrics.mTotalTimeNanos = now - mStartTimeNanos;
+        mMetrics.mSettleTimeNanos = mReleaseTimeNanos == 0 ? 0 : now - mReleaseTimeNanos;
+        if (mOnSwipeMetricsListener != null) {
+            mOnSwipeMetricsListener.onSwipeMetrics(mMetrics);
+        }
+    }
+
+    /**
+     * 放弃当前的统计
+     */
+    public void stop() {
+        if (mTracking) {
+            mTracking = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mTracking) {
+            return;
+        }
+        if (mLastFrameTimeNanos != 0) {
+            long frameNanos = frameTimeNanos - mLastFrameTimeNanos;
+            mMetrics.mFrameCount++;
+            if (frameNanos > mMetrics.mWorstFrameNanos) {
+                mMetrics.mWorstFrameNanos = frameNanos;
+            }
+            long elapsedFrames = (frameNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos;
+            if (elapsedFrames > 1) {
+                mMetrics.mDroppedFrameCount += elapsedFrames - 1;
+            }
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * 脚本化的滑动场景，统计每次滑动的创建/绑定次数、布局次数、requestLayout次数以及内存分配，和基线比较
+ * <p>每个场景先预热，再取多次的平均值</p>
+ *
+ * @author andy
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CleverRecyclerViewScrollScenarioTest {
+    private static final int ITEM_COUNT = 100;
+    private static final int WARM_UP_COUNT = 2;
+    private static final int MEASURE_COUNT = 5;
+
+    private ScrollBaselines mBaselines;
+
+    @Before
+    public void setUp() throws Exception {
+        mBaselines = ScrollBaselines.load();
+    }
+
+    @Test
+    public void swipeSinglePage() throws Exception {
+        ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        ScrollScenarioHarness.Sample sample = measureSwipes(harness);
+
+        assertEquals(WARM_UP_COUNT + MEASURE_COUNT, harness.mRecyclerView.getCurrentPosition());
+        mBaselines.check("swipe.horizontal", sample);
+    }
+
+    @Test
+    public void swipeWithThreeVisiblePages() throws Exception {
+        ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        harness.setVisibleChildCount(3);
+        harness.settle();
+        ScrollScenarioHarness.Sample sample = measureSwipes(harness);
+
+        assertEquals(WARM_UP_COUNT + MEASURE_COUNT, harness.mRecyclerView.getCurrentPosition());
+        mBaselines.check("swipe.visible3", sample);
+    }
+
+    @Test
+    public void flingForward() throws Exception {
+        final ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        for (int i = 0; i < WARM_UP_COUNT; i++) {
+            harness.flingForward();
+        }
+        int startPosition = harness.mRecyclerView.getCurrentPosition();
+        ScrollScenarioHarness.Sample sample = harness.measure(MEASURE_COUNT, new Runnable() {
+            @Override
+            public void run() {
+                harness.flingForward();
+            }
+        });
+
+        assertTrue(harness.mRecyclerView.getCurrentPosition() > startPosition);
+        mBaselines.check("fling.horizontal", sample);
+    }
+
+    @Test
+    public void swipeAfterOrientationChange() throws Exception {
+        final ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        harness.swipeToNextPage();
+        ScrollScenarioHarness.Sample orientationSample = harness.measure(1, new Runnable() {
+            @Override
+            public void run() {
+                harness.setOrientation(CleverPagerLayoutManager.VERTICAL);
+                harness.settle();
+            }
+        });
+
+        //切换方向后停留在原来的页面
+        assertEquals(1, harness.mRecyclerView.getCurrentPosition());
+        mBaselines.check("orientation.change", orientationSample);
+
+        ScrollScenarioHarness.Sample sample = measureSwipes(harness);
+
+        assertEquals(1 + WARM_UP_COUNT + MEASURE_COUNT, harness.mRecyclerView.getCurrentPosition());
+        mBaselines.check("swipe.vertical", sample);
+    }
+
+    @Test
+    public void changeVisibleChildCount() throws Exception {
+        final ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        harness.swipeToNextPage();
+        ScrollScenarioHarness.Sample sample = harness.measure(1, new Runnable() {
+            @Override
+            public void run() {
+                harness.setVisibleChildCount(3);
+                harness.settle();
+            }
+        });
+
+        assertEquals(1, harness.mRecyclerView.getCurrentPosition());
+        mBaselines.check("visibleChildCount.change", sample);
+    }
+
+    @Test
+    public void smoothScrollToAttachedTarget() throws Exception {
+        ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        harness.setVisibleChildCount(3);
+        harness.settle();
+        //目标页已经在布局中，距离又超过了跳转的阀值，不能先跳转再滚动
+        harness.mRecyclerView.setJumpThreshold(1);
+        assertNotNull(harness.mRecyclerView.getLayoutManager().findViewByPosition(2));
+
+        harness.mRecyclerView.smoothScrollToPosition(2);
+        harness.settle();
+
+        assertEquals(2, harness.mRecyclerView.getCurrentPosition());
+        assertEquals(2 * (ScrollScenarioHarness.WIDTH / 3),
+                ((CleverPagerLayoutManager) harness.mRecyclerView.getLayoutManager()).getScrollOffset());
+    }
+
+    @Test
+    public void smoothScrollToFarTarget() throws Exception {
+        ScrollScenarioHarness harness = new ScrollScenarioHarness(ITEM_COUNT);
+        int target = ITEM_COUNT / 2;
+
+        harness.mRecyclerView.smoothScrollToPosition(target);
+        harness.settle();
+
+        assertEquals(target, harness.mRecyclerView.getCurrentPosition());
+        assertEquals(target * ScrollScenarioHarness.WIDTH,
+                ((CleverPagerLayoutManager) harness.mRecyclerView.getLayoutManager()).getScrollOffset());
+    }
+
+    private ScrollScenarioHarness.Sample measureSwipes(final ScrollScenarioHarness harness) {
+        for (int i = 0; i < WARM_UP_COUNT; i++) {
+            harness.swipeToNextPage();
+        }
+        return harness.measure(MEASURE_COUNT, new Runnable() {
+            @Override
+            public void run() {
+                harness.swipeToNextPage();
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.graphics.Color;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+
+/**
+ * 统计创建和绑定次数的Adapter，页面只是一个纯色的View，绑定时不会触发requestLayout
+ *
+ * @author andy
+ */
+class CountingAdapter extends RecyclerView.Adapter<CountingAdapter.PageViewHolder> {
+    private final int mItemCount;
+
+    int mCreateCount;
+    int mBindCount;
+
+    public CountingAdapter(int itemCount) {
+        mItemCount = itemCount;
+    }
+
+    @Override
+    public PageViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        mCreateCount++;
+        return new PageViewHolder(new View(parent.getContext()));
+    }
+
+    @Override
+    public void onBindViewHolder(PageViewHolder holder, int position) {
+        mBindCount++;
+        holder.itemView.setBackgroundColor(position % 2 == 0 ? Color.WHITE : Color.GRAY);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    static class PageViewHolder extends RecyclerView.ViewHolder {
+        public PageViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+}
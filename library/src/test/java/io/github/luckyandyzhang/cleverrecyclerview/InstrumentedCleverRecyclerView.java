@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+
+/**
+ * 统计布局次数和requestLayout调用次数的CleverRecyclerView
+ *
+ * @author andy
+ */
+class InstrumentedCleverRecyclerView extends CleverRecyclerView {
+    int mLayoutCount;
+    int mRequestLayoutCount;
+
+    public InstrumentedCleverRecyclerView(Context context) {
+        //单参数的构造方法不会初始化CleverRecyclerView
+        super(context, (AttributeSet) null);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        mLayoutCount++;
+        super.onLayout(changed, l, t, r, b);
+    }
+
+    @Override
+    public void requestLayout() {
+        mRequestLayoutCount++;
+        super.requestLayout();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * 滑动场景的基线数据
+ * <p>基线保存在scroll_baselines.properties中，每个场景的每项指标一行，都是实际测到的数值：
+ * 创建、绑定、布局和requestLayout的次数在Robolectric中是确定的，超过基线即视为退化；内存分配允许很小的浮动</p>
+ * <p>以-Dclever.recordBaselines=true运行测试时不做比较，而是把测到的数值写到build/scroll_baselines.properties，
+ * 确认之后再替换掉测试资源中的文件。还没有记录基线的场景直接失败，新增场景时要同时记录它的基线</p>
+ *
+ * @author andy
+ */
+class ScrollBaselines {
+    private static final String BASELINE_FILE = "scroll_baselines.properties";
+    //内存分配受JIT的影响会有少量浮动，次数类的指标不允许浮动
+    private static final String KEY_ALLOCATION_TOLERANCE = "allocatedBytes.tolerance";
+    private static final String DEFAULT_ALLOCATION_TOLERANCE = "0.05";
+
+    private static final Properties sRecorded = new Properties();
+
+    private final Properties mBaselines;
+    private final boolean mRecording;
+
+    private ScrollBaselines(Properties baselines, boolean recording) {
+        mBaselines = baselines;
+        mRecording = recording;
+    }
+
+    static ScrollBaselines load() throws IOException {
+        Properties baselines = new Properties();
+        InputStream in = ScrollBaselines.class.getResourceAsStream(BASELINE_FILE);
+        assertNotNull("missing " + BASELINE_FILE, in);
+        try {
+            baselines.load(in);
+        } finally {
+            in.close();
+        }
+        return new ScrollBaselines(baselines, Boolean.getBoolean("clever.recordBaselines"));
+    }
+
+    /**
+     * 检查场景的统计数据是否超过基线，记录模式下只记录
+     *
+     * @param scenario 场景名
+     * @param sample   统计数据
+     */
+    void check(String scenario, ScrollScenarioHarness.Sample sample) throws IOException {
+        if (mRecording) {
+            record(scenario, sample);
+            return;
+        }
+        assertNotNull("no baseline recorded for " + scenario + ", run with -Dclever.recordBaselines=true to record one",
+                mBaselines.getProperty(scenario + ".create"));
+        checkMetric(scenario + ".create", sample.mCreateCount, 0);
+        checkMetric(scenario + ".bind", sample.mBindCount, 0);
+        checkMetric(scenario + ".layout", sample.mLayoutCount, 0);
+        checkMetric(scenario + ".requestLayout", sample.mRequestLayoutCount, 0);
+        if (sample.mAllocatedBytes >= 0) {
+            checkMetric(scenario + ".allocatedBytes", sample.mAllocatedBytes,
+                    Double.parseDouble(mBaselines.getProperty(KEY_ALLOCATION_TOLERANCE, DEFAULT_ALLOCATION_TOLERANCE)));
+        }
+    }
+
+    private void checkMetric(String key, double value, double tolerance) {
+        String baseline = mBaselines.getProperty(key);
+        assertNotNull("incomplete baseline, missing " + key, baseline);
+        double limit = Double.parseDouble(baseline) * (1 + tolerance);
+        assertTrue(key + " regressed: " + value + " > " + limit, value <= limit);
+    }
+
+    private static void record(String scenario, ScrollScenarioHarness.Sample sample) throws IOException {
+        sRecorded.setProperty(KEY_ALLOCATION_TOLERANCE, DEFAULT_ALLOCATION_TOLERANCE);
+        sRecorded.setProperty(scenario + ".create", String.valueOf(sample.mCreateCount));
+        sRecorded.setProperty(scenario + ".bind", String.valueOf(sample.mBindCount));
+        sRecorded.setProperty(scenario + ".layout", String.valueOf(sample.mLayoutCount));
+        sRecorded.setProperty(scenario + ".requestLayout", String.valueOf(sample.mRequestLayoutCount));
+        if (sample.mAllocatedBytes >= 0) {
+            sRecorded.setProperty(scenario + ".allocatedBytes", String.valueOf(sample.mAllocatedBytes));
+        }
+        File output = new File(System.getProperty("clever.baselineOutput", BASELINE_FILE));
+        File parent = output.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("can not create " + parent);
+        }
+        OutputStream out = new FileOutputStream(output);
+        try {
+            sRecorded.store(out, "recorded scroll baselines");
+        } finally {
+            out.close();
+        }
+    }
+}
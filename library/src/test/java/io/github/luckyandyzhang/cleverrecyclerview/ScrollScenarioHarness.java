@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Andy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.luckyandyzhang.cleverrecyclerview;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * 在JVM上驱动CleverRecyclerView的脚本化滑动场景
+ * <p>CleverRecyclerView挂在一个可见的Activity上，动画由Robolectric的调度器逐帧推进，
+ * 每一帧之后如果还有没有完成的布局请求，就手动measure/layout一次，保证在没有真实屏幕的情况下布局也能完成</p>
+ *
+ * @author andy
+ */
+class ScrollScenarioHarness {
+    static final int WIDTH = 480;
+    static final int HEIGHT = 320;
+
+    private static final long FRAME_MILLIS = 16;
+    private static final int MAX_SETTLE_FRAMES = 300;
+    private static final int DRAG_STEPS = 6;
+    //停止拖动后保持不动的时长，保证松手时的速度接近0，不会触发fling
+    private static final long HOLD_MILLIS = 200;
+
+    final InstrumentedCleverRecyclerView mRecyclerView;
+    final CountingAdapter mAdapter;
+    private boolean mHorizontal = true;
+    private int mVisibleChildCount = 1;
+
+    ScrollScenarioHarness(int itemCount) {
+        Activity activity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+        FrameLayout root = new FrameLayout(activity);
+        mRecyclerView = new InstrumentedCleverRecyclerView(activity);
+        root.addView(mRecyclerView, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        activity.setContentView(root);
+        mAdapter = new CountingAdapter(itemCount);
+        mRecyclerView.setAdapter(mAdapter);
+        settle();
+    }
+
+    void setOrientation(int orientation) {
+        mHorizontal = orientation == CleverPagerLayoutManager.HORIZONTAL;
+        mRecyclerView.setOrientation(orientation);
+    }
+
+    void setVisibleChildCount(int visibleChildCount) {
+        mVisibleChildCount = visibleChildCount;
+        mRecyclerView.setVisibleChildCount(visibleChildCount);
+    }
+
+    /**
+     * 慢慢拖动大半页后松手，由CleverRecyclerView根据阀值吸附到下一页
+     */
+    void swipeToNextPage() {
+        int pageSize = mHorizontal ? mRecyclerView.getWidth() : mRecyclerView.getHeight();
+        pageSize /= mVisibleChildCount;
+        drag(pageSize * 0.6f, DRAG_STEPS, true);
+        settle();
+    }
+
+    /**
+     * 快速拖动一小段距离后直接松手，触发fling
+     */
+    void flingForward() {
+        int pageSize = mHorizontal ? mRecyclerView.getWidth() : mRecyclerView.getHeight();
+        drag(pageSize / 3f, 3, false);
+        settle();
+    }
+
+    private void drag(float distance, int steps, boolean hold) {
+        long downTime = SystemClock.uptimeMillis();
+        float x = WIDTH / 2f;
+        float y = HEIGHT / 2f;
+        dispatchTouchEvent(downTime, MotionEvent.ACTION_DOWN, x, y);
+        for (int i = 0; i < steps; i++) {
+            advanceFrame();
+            if (mHorizontal) {
+                x -= distance / steps;
+            } else {
+                y -= distance / steps;
+            }
+            dispatchTouchEvent(downTime, MotionEvent.ACTION_MOVE, x, y);
+        }
+        if (hold) {
+            Robolectric.getForegroundThreadScheduler().advanceBy(HOLD_MILLIS);
+            dispatchTouchEvent(downTime, MotionEvent.ACTION_MOVE, x, y);
+        }
+        dispatchTouchEvent(downTime, MotionEvent.ACTION_UP, x, y);
+    }
+
+    private void dispatchTouchEvent(long downTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        mRecyclerView.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * 推进帧，直到停止滚动并且没有等待中的布局请求
+     */
+    void settle() {
+        for (int i = 0; i < MAX_SETTLE_FRAMES; i++) {
+            advanceFrame();
+            if (mRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE && !mRecyclerView.isLayoutRequested()) {
+                return;
+            }
+        }
+        assertEquals("CleverRecyclerView did not settle", RecyclerView.SCROLL_STATE_IDLE, mRecyclerView.getScrollState());
+    }
+
+    private void advanceFrame() {
+        Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_MILLIS);
+        if (mRecyclerView.isLayoutRequested()) {
+            mRecyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            mRecyclerView.layout(0, 0, WIDTH, HEIGHT);
+        }
+    }
+
+    /**
+     * 重复执行一个场景，返回每次的平均值
+     *
+     * @param repeatCount 重复次数
+     * @param scenario    场景
+     * @return 平均每次的统计数据
+     */
+    Sample measure(int repeatCount, Runnable scenario) {
+        int createCount = mAdapter.mCreateCount;
+        int bindCount = mAdapter.mBindCount;
+        int layoutCount = mRecyclerView.mLayoutCount;
+        int requestLayoutCount = mRecyclerView.mRequestLayoutCount;
+        long allocatedBytes = getAllocatedBytes();
+        for (int i = 0; i < repeatCount; i++) {
+            scenario.run();
+        }
+        long allocated = allocatedBytes < 0 ? -1 : (getAllocatedBytes() - allocatedBytes) / repeatCount;
+        return new Sample((double) (mAdapter.mCreateCount - createCount) / repeatCount,
+                (double) (mAdapter.mBindCount - bindCount) / repeatCount,
+                (double) (mRecyclerView.mLayoutCount - layoutCount) / repeatCount,
+                (double) (mRecyclerView.mRequestLayoutCount - requestLayoutCount) / repeatCount,
+                allocated);
+    }
+
+    /**
+     * 当前线程已经分配的字节数，JVM不支持时返回-1
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * 一个场景平均每次的统计数据
+     */
+    static class Sample {
+        final double mCreateCount;
+        final double mBindCount;
+        final double mLayoutCount;
+        final double mRequestLayoutCount;
+        //不支持统计时为-1
+        final long mAllocatedBytes;
+
+        Sample(double createCount, double bindCount, double layoutCount, double requestLayoutCount, long allocatedBytes) {
+            mCreateCount = createCount;
+            mBindCount = bindCount;
+            mLayoutCount = layoutCount;
+            mRequestLayoutCount = requestLayoutCount;
+            mAllocatedBytes = allocatedBytes;
+        }
+    }
+}